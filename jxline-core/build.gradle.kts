@@ -5,3 +5,55 @@ dependencies {
     testImplementation(libs.bundles.testing)
     testRuntimeOnly(libs.bundles.log4j)
 }
+
+// Multi-release jar, the classes in src/main/java21 override the base ones on Java 21+. They are
+// compiled by a Java 21 toolchain, whatever the JVM running the build, so they are only built
+// with -Pjxline.java21=true. Otherwise the jar only has the Java 11 classes, which fall back to
+// platform threads.
+val java21Enabled =
+    providers.gradleProperty("jxline.java21").map { it.toBoolean() }.getOrElse(false)
+
+if (java21Enabled) {
+    val java21 by sourceSets.creating {
+        java.srcDir("src/main/java21")
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    }
+
+    tasks {
+        named<JavaCompile>(java21.compileJavaTaskName) {
+            javaCompiler = javaToolchains.compilerFor {
+                languageVersion = JavaLanguageVersion.of(21)
+            }
+            options.release = 21
+        }
+
+        named<Jar>("jar") {
+            into("META-INF/versions/21") {
+                from(java21.output)
+            }
+            manifest {
+                attributes("Multi-Release" to "true")
+            }
+        }
+
+        // The unit tests of the executors, on Java 21 with the multi-release classes first
+        val testJava21 by registering(Test::class) {
+            description = "Runs the executor tests on Java 21 with the multi-release classes."
+            group = "verification"
+            javaLauncher = project.javaToolchains.launcherFor {
+                languageVersion = JavaLanguageVersion.of(21)
+            }
+            testClassesDirs = sourceSets.test.get().output.classesDirs
+            classpath = java21.output + sourceSets.test.get().runtimeClasspath
+            useJUnitPlatform()
+            systemProperty("jxline.test.virtualThreads", "true")
+            filter {
+                includeTestsMatching("cloud.xline.jxline.impl.DefaultExecutorsTest")
+            }
+        }
+
+        named("check") {
+            dependsOn(testJava21)
+        }
+    }
+}
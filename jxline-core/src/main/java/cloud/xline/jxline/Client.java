@@ -1,9 +1,11 @@
 package cloud.xline.jxline;
 
+import io.etcd.jetcd.ByteSequence;
+
 /**
  * Xline client
  */
-public interface Client {
+public interface Client extends AutoCloseable {
 
     /**
      * Get the protocol client
@@ -19,6 +21,30 @@ public interface Client {
      */
     KV getKVClient();
 
+    /**
+     * Get a view of the kv client on another namespace, in place of the namespace of the client.
+     * The views share the connections and the cluster state of this client, so they are cheap to
+     * create, e.g. one per tenant.
+     *
+     * @param namespace the namespace of the keys
+     * @return the {@link KV} view
+     */
+    KV withNamespace(ByteSequence namespace);
+
+    /**
+     * Start a new read-your-writes session on the kv client
+     *
+     * @return the {@link Session}
+     */
+    Session newSession();
+
+    /**
+     * Close the client, the calls in flight are cancelled. The threads and event loops are released
+     * unless they belong to a shared {@link XlineRuntime} or a user supplied executor.
+     */
+    @Override
+    void close();
+
     /**
      * Override the jetcd.cloud.xline.client.Client.builder
      *
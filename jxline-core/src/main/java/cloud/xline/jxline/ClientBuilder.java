@@ -30,9 +30,11 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -65,6 +67,17 @@ public final class ClientBuilder implements Cloneable {
     private Duration keepaliveTimeout = Duration.ofSeconds(10L);
     private Boolean keepaliveWithoutCalls = true;
     private Duration retryMaxDuration;
+    private RetryPolicy retryPolicy;
+    private ReplicaSelector replicaSelector = ReplicaSelector.lowestLatency();
+    private Double hedgingPercentile;
+    private Duration defaultDeadline;
+    private Path clusterSnapshot;
+    private int channelsPerMember = 1;
+    private int maxChannelsPerMember = 4;
+    private XlineRuntime runtime;
+    private Integer eventLoops;
+    private Boolean virtualThreads;
+    private Executor completionExecutor;
     private Duration connectTimeout;
     private boolean waitForReady = true;
 
@@ -670,6 +683,270 @@ public final class ClientBuilder implements Cloneable {
         return this;
     }
 
+    /**
+     * Returns the retry policy.
+     *
+     * @return the retry policy, null means building one from the retry settings.
+     */
+    public RetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Set the retry policy. It overrides {@link #retryDelay(long)}, {@link #retryMaxDelay(long)},
+     * {@link #retryMaxAttempts(int)}, {@link #retryChronoUnit(ChronoUnit)} and {@link
+     * #retryMaxDuration(Duration)}.
+     *
+     * @param retryPolicy the retry policy.
+     * @return this builder
+     * @throws NullPointerException if retryPolicy is <code>null</code>
+     */
+    public ClientBuilder retryPolicy(RetryPolicy retryPolicy) {
+        Objects.requireNonNull(retryPolicy, "retryPolicy can't be null");
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Returns the replica selector of serializable reads.
+     *
+     * @return the replica selector.
+     */
+    public ReplicaSelector replicaSelector() {
+        return replicaSelector;
+    }
+
+    /**
+     * Set the replica selector of serializable reads, defaults to {@link
+     * ReplicaSelector#lowestLatency()}.
+     *
+     * @param replicaSelector the replica selector.
+     * @return this builder
+     * @throws NullPointerException if replicaSelector is <code>null</code>
+     */
+    public ClientBuilder replicaSelector(ReplicaSelector replicaSelector) {
+        Objects.requireNonNull(replicaSelector, "replicaSelector can't be null");
+        this.replicaSelector = replicaSelector;
+        return this;
+    }
+
+    /**
+     * Returns the latency percentile to hedge the waitSynced calls.
+     *
+     * @return the percentile, null means hedging is disabled.
+     */
+    public Double hedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    /**
+     * Set the latency percentile to hedge the waitSynced calls. If the leader does not answer
+     * within this percentile of its observed waitSynced latency, the call is re-issued to the new
+     * leader learned by fetching the cluster, and the first valid answer is taken. Disabled by
+     * default.
+     *
+     * @param hedgingPercentile the percentile in (0, 1), e.g. 0.95, null to disable hedging.
+     * @return this builder
+     * @throws IllegalArgumentException if hedgingPercentile is out of (0, 1)
+     */
+    public ClientBuilder hedgingPercentile(Double hedgingPercentile) {
+        Preconditions.checkArgument(
+                hedgingPercentile == null || (hedgingPercentile > 0 && hedgingPercentile < 1),
+                "hedgingPercentile should be in (0, 1)");
+        this.hedgingPercentile = hedgingPercentile;
+        return this;
+    }
+
+    /**
+     * Returns the default deadline of the calls.
+     *
+     * @return the default deadline, null means the calls have no deadline.
+     */
+    public Duration defaultDeadline() {
+        return defaultDeadline;
+    }
+
+    /**
+     * Set the default deadline of the calls, it applies to the calls made without a deadline, see
+     * {@link KV#withDeadline(Duration)}. The deadline bounds the whole call, including its
+     * retries, and is propagated to the servers so that they could give up the call as well.
+     *
+     * @param defaultDeadline the default deadline, null means no deadline.
+     * @return this builder
+     * @throws IllegalArgumentException if defaultDeadline is not positive
+     */
+    public ClientBuilder defaultDeadline(Duration defaultDeadline) {
+        Preconditions.checkArgument(
+                defaultDeadline == null
+                        || !(defaultDeadline.isNegative() || defaultDeadline.isZero()),
+                "defaultDeadline should be positive");
+        this.defaultDeadline = defaultDeadline;
+        return this;
+    }
+
+    /**
+     * Returns the file of the cluster snapshot.
+     *
+     * @return the file, null means the cluster state is not persisted.
+     */
+    public Path clusterSnapshot() {
+        return clusterSnapshot;
+    }
+
+    /**
+     * Persist the cluster state to the given file. A client started with an existing snapshot
+     * connects to the members in it right away instead of querying the seeds, and validates it in
+     * the background.
+     *
+     * @param clusterSnapshot the file, null means the cluster state is not persisted.
+     * @return this builder
+     */
+    public ClientBuilder clusterSnapshot(Path clusterSnapshot) {
+        this.clusterSnapshot = clusterSnapshot;
+        return this;
+    }
+
+    /**
+     * Returns the initial number of channels to each member.
+     *
+     * @return the number of channels.
+     */
+    public int channelsPerMember() {
+        return channelsPerMember;
+    }
+
+    /**
+     * Set the initial number of channels to each member, each channel is a separate HTTP/2
+     * connection. The calls go to the channel with the fewest calls in flight. Defaults to 1.
+     *
+     * @param channelsPerMember the number of channels.
+     * @return this builder
+     * @throws IllegalArgumentException if channelsPerMember is not positive
+     */
+    public ClientBuilder channelsPerMember(int channelsPerMember) {
+        Preconditions.checkArgument(channelsPerMember > 0, "channelsPerMember should be positive");
+        this.channelsPerMember = channelsPerMember;
+        return this;
+    }
+
+    /**
+     * Returns the max number of channels to each member.
+     *
+     * @return the max number of channels.
+     */
+    public int maxChannelsPerMember() {
+        return maxChannelsPerMember;
+    }
+
+    /**
+     * Set the max number of channels to each member. A channel is added to the member when all
+     * of its channels are saturated with calls in flight, until the max is reached. It is at least
+     * {@link #channelsPerMember()}. Defaults to 4.
+     *
+     * @param maxChannelsPerMember the max number of channels.
+     * @return this builder
+     * @throws IllegalArgumentException if maxChannelsPerMember is not positive
+     */
+    public ClientBuilder maxChannelsPerMember(int maxChannelsPerMember) {
+        Preconditions.checkArgument(
+                maxChannelsPerMember > 0, "maxChannelsPerMember should be positive");
+        this.maxChannelsPerMember = maxChannelsPerMember;
+        return this;
+    }
+
+    /**
+     * Returns the shared runtime.
+     *
+     * @return the runtime, null means the client creates its own.
+     */
+    public XlineRuntime runtime() {
+        return runtime;
+    }
+
+    /**
+     * Attach the client to a shared runtime, the clients attached to the same runtime share its
+     * event loops and worker pool. The runtime is not closed along with the client.
+     *
+     * @param runtime the runtime, null means the client creates its own.
+     * @return this builder
+     */
+    public ClientBuilder runtime(XlineRuntime runtime) {
+        this.runtime = runtime;
+        return this;
+    }
+
+    /**
+     * Returns the number of event loops of the runtime created by the client.
+     *
+     * @return the number of event loops, null means twice the number of cores.
+     */
+    public Integer eventLoops() {
+        return eventLoops;
+    }
+
+    /**
+     * Set the number of event loops of the runtime created by the client, it is ignored if the
+     * client is attached to a shared {@link #runtime(XlineRuntime)}.
+     *
+     * @param eventLoops the number of event loops, null means twice the number of cores.
+     * @return this builder
+     * @throws IllegalArgumentException if eventLoops is not positive
+     */
+    public ClientBuilder eventLoops(Integer eventLoops) {
+        Preconditions.checkArgument(
+                eventLoops == null || eventLoops > 0, "eventLoops should be positive");
+        this.eventLoops = eventLoops;
+        return this;
+    }
+
+    /**
+     * Returns whether the client runs its background tasks on virtual threads.
+     *
+     * @return whether to use virtual threads, null means using them when the JVM supports them.
+     */
+    public Boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Choose the threads of the executor created by the client, it is ignored if an {@link
+     * #executorService(ExecutorService)} is configured. Virtual threads require Java 21, the client
+     * falls back to platform threads on older JVMs.
+     *
+     * @param virtualThreads true to run each task in a new virtual thread, false to use a cached
+     *     pool of platform threads, null means using virtual threads when the JVM supports them.
+     * @return this builder
+     */
+    public ClientBuilder virtualThreads(Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Returns the executor completing the futures returned by the client.
+     *
+     * @return the executor, null means completing them on the executor of the client.
+     */
+    public Executor completionExecutor() {
+        return completionExecutor;
+    }
+
+    /**
+     * Set the executor completing the futures returned by the client, so that the dependent
+     * stages run on it. By default the futures are completed on the executor of the client, see
+     * {@link #executorService(ExecutorService)}, so the dependent stages may block. Passing a
+     * direct executor such as {@code Runnable::run} completes them on the I/O threads instead,
+     * which saves a thread hop per call, but the callbacks must then be cheap and never block.
+     *
+     * @param completionExecutor the executor, null means completing the futures on the executor
+     *     of the client.
+     * @return this builder
+     */
+    public ClientBuilder completionExecutor(Executor completionExecutor) {
+        this.completionExecutor = completionExecutor;
+        return this;
+    }
+
     /**
      * Set the connection timeout.
      *
@@ -24,6 +24,7 @@ import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
 import io.etcd.jetcd.support.CloseableClient;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 
 /** Interface of kv client talking to xline. */
@@ -48,6 +49,18 @@ public interface KV extends CloseableClient {
      */
     CompletableFuture<PutResponse> put(ByteSequence key, ByteSequence value, PutOption option);
 
+    /**
+     * put a key-value pair into etcd with option, and expose both the speculative and the synced
+     * response. The speculative response completes once the put is accepted by a super quorum,
+     * its header does not carry the revision of the put.
+     *
+     * @param key key in ByteSequence
+     * @param value value in ByteSequence
+     * @param option PutOption
+     * @return the two-stage PutResponse
+     */
+    ProposeResult<PutResponse> putStaged(ByteSequence key, ByteSequence value, PutOption option);
+
     /**
      * retrieve value for the given key.
      *
@@ -65,6 +78,17 @@ public interface KV extends CloseableClient {
      */
     CompletableFuture<GetResponse> get(ByteSequence key, GetOption option);
 
+    /**
+     * retrieve keys with GetOption and the given read consistency.
+     *
+     * @param key key in ByteSequence
+     * @param option GetOption
+     * @param consistency ReadConsistency
+     * @return GetResponse
+     */
+    CompletableFuture<GetResponse> get(
+            ByteSequence key, GetOption option, ReadConsistency consistency);
+
     /**
      * delete a key.
      *
@@ -82,6 +106,17 @@ public interface KV extends CloseableClient {
      */
     CompletableFuture<DeleteResponse> delete(ByteSequence key, DeleteOption option);
 
+    /**
+     * delete a key or range with option, and expose both the speculative and the synced response.
+     * The speculative response completes once the delete is accepted by a super quorum, its header
+     * does not carry the revision of the delete.
+     *
+     * @param key key in ByteSequence
+     * @param option DeleteOption
+     * @return the two-stage DeleteResponse
+     */
+    ProposeResult<DeleteResponse> deleteStaged(ByteSequence key, DeleteOption option);
+
     /**
      * compact etcd KV history before the given rev.
      *
@@ -109,4 +144,15 @@ public interface KV extends CloseableClient {
      * @return a Txn
      */
     Txn txn();
+
+    /**
+     * returns a view of this client whose calls have the given deadline, counted from the start
+     * of each call. The deadline bounds the call including its retries, a call fails with {@code
+     * DEADLINE_EXCEEDED} once it passes. The calls made in a gRPC {@link io.grpc.Context} with a
+     * deadline are bounded by the context as well.
+     *
+     * @param timeout the deadline of each call
+     * @return the KV view
+     */
+    KV withDeadline(Duration timeout);
 }
@@ -0,0 +1,45 @@
+package cloud.xline.jxline;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The two-stage result of a proposal.
+ *
+ * @param <T> the result type
+ */
+public final class ProposeResult<T> {
+    private final CompletableFuture<T> speculative;
+    private final CompletableFuture<T> synced;
+
+    /**
+     * Create a new {@link ProposeResult}
+     *
+     * @param speculative the speculative result
+     * @param synced the synced result
+     */
+    public ProposeResult(CompletableFuture<T> speculative, CompletableFuture<T> synced) {
+        this.speculative = speculative;
+        this.synced = synced;
+    }
+
+    /**
+     * Get the speculative result. It completes once the command is accepted by a super quorum and
+     * executed by the leader, which takes one round trip. The after sync result, e.g. the
+     * revision, is not available at this stage.
+     *
+     * @return the speculative result
+     */
+    public CompletableFuture<T> speculative() {
+        return speculative;
+    }
+
+    /**
+     * Get the synced result. It completes once the command is durable and synced, with the after
+     * sync result.
+     *
+     * @return the synced result
+     */
+    public CompletableFuture<T> synced() {
+        return synced;
+    }
+}
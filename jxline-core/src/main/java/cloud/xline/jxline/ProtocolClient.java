@@ -2,13 +2,55 @@ package cloud.xline.jxline;
 
 import com.xline.protobuf.Command;
 import com.xline.protobuf.CommandResponse;
+import com.xline.protobuf.RangeResponse;
 import com.xline.protobuf.SyncResponse;
 import io.etcd.jetcd.support.CloseableClient;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 
 public interface ProtocolClient extends CloseableClient {
     <T> CompletableFuture<T> propose(
             Command cmd, boolean useFastPath, BiFunction<CommandResponse, SyncResponse, T> convert);
+
+    /**
+     * Propose the command and expose both the speculative and the synced result. The {@link
+     * SyncResponse} passed to the converter is null for the speculative result.
+     *
+     * @param cmd the command
+     * @param convert the result converter
+     * @return the {@link ProposeResult}
+     * @param <T> the result type
+     */
+    <T> ProposeResult<T> proposeStaged(
+            Command cmd, BiFunction<CommandResponse, SyncResponse, T> convert);
+
+    /**
+     * Read with the given consistency, the command must be a range command.
+     *
+     * @param cmd the range command
+     * @param consistency the read consistency
+     * @return the {@link RangeResponse}
+     */
+    CompletableFuture<RangeResponse> read(Command cmd, ReadConsistency consistency);
+
+    /**
+     * Read from a replica that has applied at least the given revision, the command must be a
+     * range command. Replicas are tried in the order of the {@link ReplicaSelector}, and the read
+     * falls back to {@link ReadConsistency#LINEARIZABLE} if all of them are behind.
+     *
+     * @param cmd the range command
+     * @param revision the min revision the replica should have applied
+     * @return the {@link RangeResponse}
+     */
+    CompletableFuture<RangeResponse> readAtLeast(Command cmd, long revision);
+
+    /**
+     * Get the routing table, a snapshot of the members with the latency, error rate and in-flight
+     * calls observed by this client
+     *
+     * @return the replicas
+     */
+    List<Replica> routingTable();
 }
@@ -0,0 +1,21 @@
+package cloud.xline.jxline;
+
+/** The consistency of a read, it decides how the read is served by the cluster. */
+public enum ReadConsistency {
+    /** The read is proposed through CURP like a write, and served by the fast round. */
+    PROPOSE,
+
+    /**
+     * The read fetches its read state from the leader, which is either the conflicting commands in
+     * flight or the commit index, and is served by the leader after the read state is satisfied.
+     * It costs less than {@link #PROPOSE} since the read is not broadcast to all members.
+     */
+    LINEARIZABLE,
+
+    /**
+     * The read is served by a single replica chosen by the {@link ReplicaSelector}, which may
+     * return stale data. It is used when {@link io.etcd.jetcd.options.GetOption#isSerializable()}
+     * is set.
+     */
+    SERIALIZABLE,
+}
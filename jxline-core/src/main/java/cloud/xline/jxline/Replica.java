@@ -0,0 +1,50 @@
+package cloud.xline.jxline;
+
+import java.util.Set;
+
+/** A member of the cluster that is able to serve reads, with the statistics observed locally. */
+public interface Replica {
+
+    /**
+     * Get the member id
+     *
+     * @return the member id
+     */
+    long id();
+
+    /**
+     * Get the member name
+     *
+     * @return the member name
+     */
+    String name();
+
+    /**
+     * Get the addresses of the member
+     *
+     * @return the addresses in {@code host:port} form
+     */
+    Set<String> addrs();
+
+    /**
+     * Get the exponentially weighted moving average of the call latency
+     *
+     * @return the latency in milliseconds, 0 if no call has completed yet
+     */
+    double latency();
+
+    /**
+     * Get the exponentially weighted moving average of the fraction of calls failed because the
+     * member is unavailable or too slow
+     *
+     * @return the error rate between 0 and 1
+     */
+    double errorRate();
+
+    /**
+     * Get the number of calls in flight
+     *
+     * @return the number of calls
+     */
+    int inFlight();
+}
@@ -0,0 +1,77 @@
+package cloud.xline.jxline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Chooses the replica to serve a serializable read. The read is sent to the first replica of the
+ * returned order, and falls back to the next one if the replica is unavailable.
+ */
+@FunctionalInterface
+public interface ReplicaSelector {
+    /** The cap of the error rate when computing the expected latency */
+    double MAX_ERROR_RATE = 0.99;
+
+    /**
+     * Order the replicas by preference
+     *
+     * @param replicas all the replicas in the cluster
+     * @return the replicas to try, in order
+     */
+    List<Replica> select(List<Replica> replicas);
+
+    /**
+     * Prefer the replica with the lowest expected latency, that is the latency inflated by the
+     * calls to be resent on errors. Replicas that have not been measured yet are preferred, so
+     * that every replica gets measured.
+     *
+     * @return the {@link ReplicaSelector}
+     */
+    static ReplicaSelector lowestLatency() {
+        return sorted(
+                Comparator.comparingDouble(
+                        r -> r.latency() / (1 - Math.min(r.errorRate(), MAX_ERROR_RATE))));
+    }
+
+    /**
+     * Prefer the replica with the fewest calls in flight, ties are broken by the latency.
+     *
+     * @return the {@link ReplicaSelector}
+     */
+    static ReplicaSelector fewestInFlight() {
+        return sorted(
+                Comparator.comparingInt(Replica::inFlight)
+                        .thenComparingDouble(Replica::latency));
+    }
+
+    /**
+     * Prefer the local replicas, e.g. the replicas in the same zone, and order each group by the
+     * given selector.
+     *
+     * @param local whether the replica is local, e.g. by matching its name or addresses
+     * @param then the selector to order the replicas within each group
+     * @return the {@link ReplicaSelector}
+     */
+    static ReplicaSelector preferring(Predicate<Replica> local, ReplicaSelector then) {
+        return replicas -> {
+            List<Replica> locals = new ArrayList<>();
+            List<Replica> remotes = new ArrayList<>();
+            for (Replica replica : replicas) {
+                (local.test(replica) ? locals : remotes).add(replica);
+            }
+            List<Replica> ordered = new ArrayList<>(then.select(locals));
+            ordered.addAll(then.select(remotes));
+            return ordered;
+        };
+    }
+
+    private static ReplicaSelector sorted(Comparator<Replica> comparator) {
+        return replicas -> {
+            List<Replica> ordered = new ArrayList<>(replicas);
+            ordered.sort(comparator);
+            return ordered;
+        };
+    }
+}
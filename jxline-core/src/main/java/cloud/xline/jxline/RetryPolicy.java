@@ -0,0 +1,48 @@
+package cloud.xline.jxline;
+
+import cloud.xline.jxline.support.ExponentialBackoff;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Decides when a failed request should be attempted again. Whether a failure is retryable at all
+ * is decided by the client, e.g. {@link cloud.xline.jxline.exceptions.CurpException#shouldRetry()},
+ * the policy only controls the schedule.
+ */
+@FunctionalInterface
+public interface RetryPolicy {
+
+    /**
+     * Get the delay before the next attempt
+     *
+     * @param attempts the number of attempts already made, starts from 1
+     * @param elapsed the time elapsed since the first attempt started
+     * @param cause the failure of the last attempt
+     * @return the delay before the next attempt, or empty to give up
+     */
+    Optional<Duration> nextDelay(int attempts, Duration elapsed, Throwable cause);
+
+    /**
+     * A policy that never retries
+     *
+     * @return the {@link RetryPolicy}
+     */
+    static RetryPolicy never() {
+        return (attempts, elapsed, cause) -> Optional.empty();
+    }
+
+    /**
+     * Create the default policy from the retry settings of the {@link ClientBuilder}
+     *
+     * @param builder the client builder
+     * @return the {@link RetryPolicy}
+     */
+    static RetryPolicy fromBuilder(ClientBuilder builder) {
+        return new ExponentialBackoff(
+                Duration.of(builder.retryDelay(), builder.retryChronoUnit()),
+                Duration.of(builder.retryMaxDelay(), builder.retryChronoUnit()),
+                builder.retryMaxAttempts(),
+                builder.retryMaxDuration());
+    }
+}
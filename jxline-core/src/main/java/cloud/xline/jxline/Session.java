@@ -0,0 +1,28 @@
+package cloud.xline.jxline;
+
+import java.time.Duration;
+
+/**
+ * A {@link KV} client with read-your-writes consistency. The session records the highest revision
+ * it has seen, and serves its reads from any replica that has applied at least that revision.
+ *
+ * <p>Writes of the session wait for the synced result, since the speculative result does not carry
+ * the revision of the write. A session is cheap and meant to be scoped to a request.
+ */
+public interface Session extends KV {
+
+    /**
+     * Get the highest revision seen by the session
+     *
+     * @return the revision
+     */
+    long revision();
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The view shares the revision with this session.
+     */
+    @Override
+    Session withDeadline(Duration timeout);
+}
@@ -0,0 +1,84 @@
+package cloud.xline.jxline;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The transport runtime of the clients, i.e. the event loops and the worker pool. A runtime could
+ * be shared by multiple clients through {@link ClientBuilder#runtime(XlineRuntime)}, so that they
+ * do not spin up their own threads. The runtime is owned by the creator, closing the clients does
+ * not close it.
+ *
+ * <p>The native transport of Netty, e.g. epoll on Linux, is used if it is on the classpath.
+ */
+public final class XlineRuntime implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XlineRuntime.class);
+
+    private final Vertx vertx;
+
+    private XlineRuntime(Vertx vertx) {
+        this.vertx = vertx;
+    }
+
+    /**
+     * Create a runtime with the default number of event loops, twice the number of cores
+     *
+     * @return the runtime
+     */
+    public static XlineRuntime create() {
+        return create(null);
+    }
+
+    /**
+     * Create a runtime
+     *
+     * @param eventLoops the number of event loops, null means the default
+     * @return the runtime
+     * @throws IllegalArgumentException if eventLoops is not positive
+     */
+    public static XlineRuntime create(Integer eventLoops) {
+        return new XlineRuntime(newVertx(eventLoops));
+    }
+
+    private static Vertx newVertx(Integer eventLoops) {
+        VertxOptions options = new VertxOptions().setUseDaemonThread(true);
+        options.setPreferNativeTransport(true);
+        if (eventLoops != null) {
+            if (eventLoops <= 0) {
+                throw new IllegalArgumentException("eventLoops should be positive");
+            }
+            options.setEventLoopPoolSize(eventLoops);
+        }
+        Vertx vertx = Vertx.vertx(options);
+        if (!vertx.isNativeTransportEnabled()) {
+            LOGGER.debug(
+                    "native transport unavailable, " + vertx.unavailableNativeTransportCause());
+        }
+        return vertx;
+    }
+
+    /**
+     * Get the Vert.x instance of the runtime
+     *
+     * @return the Vert.x instance
+     */
+    public Vertx vertx() {
+        return this.vertx;
+    }
+
+    /**
+     * Whether the native transport is used
+     *
+     * @return true if the native transport is used
+     */
+    public boolean isNativeTransportEnabled() {
+        return this.vertx.isNativeTransportEnabled();
+    }
+
+    @Override
+    public void close() {
+        this.vertx.close();
+    }
+}
@@ -25,6 +25,15 @@ public class CurpException extends RuntimeException {
         this.error = error;
     }
 
+    /**
+     * Get the {@link CurpError} returned by the curp server
+     *
+     * @return the {@link CurpError}
+     */
+    public CurpError getError() {
+        return error;
+    }
+
     public enum Priority {
         LOW(1),
         HIGH(2);
@@ -48,7 +57,8 @@ public class CurpException extends RuntimeException {
                 || this.error.hasNodeNotExists()
                 || this.error.hasLearnerNotCatchUp()
                 || this.error.hasExpiredClientId()
-                || this.error.hasRedirect()) {
+                || this.error.hasRedirect()
+                || this.error.hasWrongClusterVersion()) {
             return Priority.HIGH;
         }
         if (this.error.hasRpcTransport()
@@ -88,6 +98,26 @@ public class CurpException extends RuntimeException {
         return false;
     }
 
+    /**
+     * Whether the request failed with this error should be retried. Errors caused by a stale client
+     * state (the client id, the leader or the cluster version) are always retried, since the state
+     * is refreshed before the next attempt. Otherwise, errors that abort the slow round are final,
+     * and the rest are retried if they are of low priority.
+     *
+     * @return true if the request should be retried
+     */
+    public boolean shouldRetry() {
+        if (this.error.hasExpiredClientId()
+                || this.error.hasRedirect()
+                || this.error.hasWrongClusterVersion()) {
+            return true;
+        }
+        if (this.shouldAbortSlowRound()) {
+            return false;
+        }
+        return this.priority() == Priority.LOW;
+    }
+
     public static CurpException toCurpException(Throwable throwable) {
         if (throwable instanceof CurpException) {
             return (CurpException) throwable;
@@ -103,6 +133,40 @@ public class CurpException extends RuntimeException {
             return new CurpException(DEFAULT_CURP_ERROR);
         }
         CurpError curpError = trailers.get(STATUS_DETAILS_KEY);
+        if (curpError == null) {
+            // e.g. the call is cancelled or exceeds its deadline on the client side
+            return new CurpException(DEFAULT_CURP_ERROR);
+        }
         return new CurpException(curpError);
     }
+
+    /**
+     * Map the failure of a call to a curp server. Unlike {@link #toCurpException(Throwable)}, only
+     * the {@link CurpError} returned by the server and the transport failures, i.e. {@code
+     * UNAVAILABLE}, {@code CANCELLED} and {@code DEADLINE_EXCEEDED} without details, become a
+     * {@link CurpException}. Any other status, e.g. {@code PERMISSION_DENIED} or {@code
+     * INVALID_ARGUMENT}, is not a curp error and is surfaced as is.
+     *
+     * @param throwable the failure of the call
+     * @return the {@link CurpException}, or the {@link XlineException} carrying the original
+     *     status
+     */
+    public static RuntimeException fromCallFailure(Throwable throwable) {
+        if (throwable instanceof CurpException) {
+            return (CurpException) throwable;
+        }
+        Metadata trailers = Status.trailersFromThrowable(throwable);
+        CurpError curpError = trailers == null ? null : trailers.get(STATUS_DETAILS_KEY);
+        if (curpError != null) {
+            return new CurpException(curpError);
+        }
+        switch (Status.fromThrowable(throwable).getCode()) {
+            case UNAVAILABLE:
+            case CANCELLED:
+            case DEADLINE_EXCEEDED:
+                return new CurpException(DEFAULT_CURP_ERROR);
+            default:
+                return XlineException.toXlineException(throwable);
+        }
+    }
 }
@@ -0,0 +1,219 @@
+package cloud.xline.jxline.impl;
+
+import com.curp.protobuf.VertxProtocolGrpc;
+import com.xline.protobuf.VertxKVGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A pool of channels to a member. Each call goes to the channel with the fewest calls in flight,
+ * and the pool grows by one channel when all of them are saturated, up to the max size. The
+ * channels added on saturation are removed by {@link #shrink(long)} once they are idle. Every
+ * channel is a separate HTTP/2 connection, the {@link Connector} binds each of them to the next
+ * event loop of the runtime.
+ */
+final class ChannelPool {
+    /** The number of calls in flight on a saturated channel, the usual max concurrent streams */
+    static final int SATURATION = 100;
+
+    private final Connector connector;
+    private final int minSize;
+    private final int maxSize;
+    private volatile List<Pooled> channels;
+
+    /**
+     * Create a new pool
+     *
+     * @param connector connects the channels to the member
+     * @param size the initial number of channels
+     * @param maxSize the max number of channels
+     */
+    ChannelPool(Connector connector, int size, int maxSize) {
+        this.connector = connector;
+        this.minSize = size;
+        this.maxSize = Math.max(size, maxSize);
+        List<Pooled> channels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            channels.add(connector.connect(Pooled::new));
+        }
+        this.channels = List.copyOf(channels);
+    }
+
+    /**
+     * Get the stub of the curp protocol service on the least loaded channel
+     *
+     * @return the protocol stub
+     */
+    VertxProtocolGrpc.ProtocolVertxStub protocol() {
+        return this.select().protocol;
+    }
+
+    /**
+     * Get the stub of the xline kv service on the least loaded channel
+     *
+     * @return the kv stub
+     */
+    VertxKVGrpc.KVVertxStub kv() {
+        return this.select().kv;
+    }
+
+    int size() {
+        return this.channels.size();
+    }
+
+    /** Stop accepting new calls, the in-flight calls are kept */
+    void shutdown() {
+        for (Pooled pooled : this.channels) {
+            pooled.channel.shutdown();
+        }
+    }
+
+    /** Cancel all the calls and close the channels */
+    void shutdownNow() {
+        for (Pooled pooled : this.channels) {
+            pooled.channel.shutdownNow();
+        }
+    }
+
+    /**
+     * Remove the channels beyond the initial size that have had no calls for the given time
+     *
+     * @param idleNanos the idle time in nanoseconds
+     * @return the removed channels, they should be shut down by the caller
+     */
+    synchronized List<ManagedChannel> shrink(long idleNanos) {
+        List<Pooled> channels = this.channels;
+        if (channels.size() <= this.minSize) {
+            return Collections.emptyList();
+        }
+        long now = System.nanoTime();
+        List<Pooled> kept = new ArrayList<>(channels.size());
+        List<ManagedChannel> removed = new ArrayList<>();
+        for (int i = 0; i < channels.size(); i++) {
+            Pooled pooled = channels.get(i);
+            if (i >= this.minSize
+                    && pooled.inFlight.get() == 0
+                    && now - pooled.lastUsed >= idleNanos) {
+                removed.add(pooled.channel);
+            } else {
+                kept.add(pooled);
+            }
+        }
+        if (!removed.isEmpty()) {
+            this.channels = List.copyOf(kept);
+        }
+        return removed;
+    }
+
+    private Pooled select() {
+        List<Pooled> channels = this.channels;
+        Pooled least = leastLoaded(channels);
+        if (least.inFlight.get() >= SATURATION && channels.size() < this.maxSize) {
+            return this.grow(channels);
+        }
+        return least;
+    }
+
+    private synchronized Pooled grow(List<Pooled> seen) {
+        List<Pooled> channels = this.channels;
+        if (channels != seen || channels.size() >= this.maxSize) {
+            // grown by another caller
+            return leastLoaded(channels);
+        }
+        Pooled added = this.connector.connect(Pooled::new);
+        List<Pooled> grown = new ArrayList<>(channels);
+        grown.add(added);
+        this.channels = List.copyOf(grown);
+        return added;
+    }
+
+    private static Pooled leastLoaded(List<Pooled> channels) {
+        Pooled least = channels.get(0);
+        for (Pooled pooled : channels) {
+            if (pooled.inFlight.get() < least.inFlight.get()) {
+                least = pooled;
+            }
+        }
+        return least;
+    }
+
+    /** Connects the channels of a pool. */
+    @FunctionalInterface
+    interface Connector {
+        /**
+         * Create a new channel and initialize it on the event loop the channel is bound to, so
+         * that the stubs complete their calls on it.
+         *
+         * @param init creates the pooled channel and its stubs
+         * @return the pooled channel
+         */
+        Pooled connect(Function<ManagedChannel, Pooled> init);
+    }
+
+    /** A channel of the pool, with the stubs counting the calls in flight on it. */
+    static final class Pooled {
+        private final ManagedChannel channel;
+        private final AtomicInteger inFlight;
+        private final VertxProtocolGrpc.ProtocolVertxStub protocol;
+        private final VertxKVGrpc.KVVertxStub kv;
+
+        /** The time in nanoseconds the last call started */
+        private volatile long lastUsed;
+
+        Pooled(ManagedChannel channel) {
+            this.channel = channel;
+            this.inFlight = new AtomicInteger();
+            this.lastUsed = System.nanoTime();
+            Channel counted = ClientInterceptors.intercept(channel, new InFlight(this));
+            this.protocol = VertxProtocolGrpc.newVertxStub(counted);
+            this.kv = VertxKVGrpc.newVertxStub(counted);
+        }
+    }
+
+    /** Count the calls from start to close. */
+    private static final class InFlight implements ClientInterceptor {
+        private final Pooled pooled;
+
+        InFlight(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+                MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
+                    next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    Listener<RespT> listener =
+                            new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(
+                                    responseListener) {
+                                @Override
+                                public void onClose(Status status, Metadata trailers) {
+                                    pooled.inFlight.decrementAndGet();
+                                    super.onClose(status, trailers);
+                                }
+                            };
+                    pooled.inFlight.incrementAndGet();
+                    pooled.lastUsed = System.nanoTime();
+                    super.start(listener, headers);
+                }
+            };
+        }
+    }
+}
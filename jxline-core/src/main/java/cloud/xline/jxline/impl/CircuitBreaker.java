@@ -0,0 +1,101 @@
+package cloud.xline.jxline.impl;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A consecutive-failure circuit breaker of a member. It opens after {@link #FAILURE_THRESHOLD}
+ * faults in a row, and lets a single probe through once the open interval elapses. A successful
+ * probe closes it, a failed one opens it again with a doubled interval.
+ */
+final class CircuitBreaker {
+    /** The number of faults in a row to open the breaker */
+    static final int FAILURE_THRESHOLD = 3;
+
+    /** The initial interval in milliseconds before probing an open member */
+    static final long OPEN_INTERVAL = 1000;
+
+    /** The max interval in milliseconds before probing an open member */
+    static final long MAX_OPEN_INTERVAL = 30_000;
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int failures;
+    private long interval = OPEN_INTERVAL;
+    private long openUntil;
+
+    CircuitBreaker() {
+        this(() -> System.nanoTime() / 1_000_000);
+    }
+
+    /**
+     * Create a circuit breaker with the given clock
+     *
+     * @param clock the clock in milliseconds
+     */
+    CircuitBreaker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Acquire the permission to call the member, it turns the breaker half-open if the open
+     * interval has elapsed, and the caller becomes the probe.
+     *
+     * @return true if the member could be called
+     */
+    synchronized boolean tryAcquire() {
+        switch (this.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now() >= this.openUntil) {
+                    this.state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        this.state = State.CLOSED;
+        this.failures = 0;
+        this.interval = OPEN_INTERVAL;
+    }
+
+    synchronized void onFailure() {
+        this.failures++;
+        if (this.state == State.HALF_OPEN) {
+            this.interval = Math.min(this.interval * 2, MAX_OPEN_INTERVAL);
+            this.open();
+        } else if (this.state == State.CLOSED && this.failures >= FAILURE_THRESHOLD) {
+            this.open();
+        }
+    }
+
+    /** The call was cancelled by this client, let the next caller probe again if it is a probe */
+    synchronized void onCancel() {
+        if (this.state == State.HALF_OPEN) {
+            this.state = State.OPEN;
+        }
+    }
+
+    synchronized State state() {
+        return this.state;
+    }
+
+    private void open() {
+        this.state = State.OPEN;
+        this.openUntil = now() + this.interval;
+    }
+
+    private long now() {
+        return this.clock.getAsLong();
+    }
+}
@@ -1,16 +1,21 @@
 package cloud.xline.jxline.impl;
 
 import cloud.xline.jxline.ClientBuilder;
+import cloud.xline.jxline.RetryPolicy;
+import cloud.xline.jxline.XlineRuntime;
 
 import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.resolver.IPNameResolver;
 import io.grpc.*;
 import io.grpc.netty.NegotiationType;
-import io.grpc.stub.AbstractStub;
 import io.netty.channel.ChannelOption;
 import io.vertx.core.Vertx;
-import io.vertx.core.VertxOptions;
 import io.vertx.grpc.VertxChannelBuilder;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -19,29 +24,23 @@ final class ClientConnectionManager {
     private final Object lock;
     private final ClientBuilder builder;
     private final ExecutorService executorService;
-    private volatile Vertx vertx;
-
-    /// Integrated channel
-    private volatile ManagedChannel initChannel;
+    private final RetryPolicy retryPolicy;
+    private volatile XlineRuntime runtime;
 
     ClientConnectionManager(ClientBuilder builder) {
         this.lock = new Object();
         this.builder = builder;
 
         if (builder.executorService() == null) {
-            ThreadFactory backingThreadFactory = Executors.defaultThreadFactory();
-            // default to daemon
-            this.executorService =
-                    Executors.newCachedThreadPool(
-                            r -> {
-                                Thread t = backingThreadFactory.newThread(r);
-                                t.setDaemon(true);
-                                t.setName("jxline-" + t.getName());
-                                return t;
-                            });
+            this.executorService = DefaultExecutors.create(builder.virtualThreads());
         } else {
             this.executorService = builder.executorService();
         }
+
+        this.retryPolicy =
+                builder.retryPolicy() != null
+                        ? builder.retryPolicy()
+                        : RetryPolicy.fromBuilder(builder);
     }
 
     ByteSequence getNamespace() {
@@ -56,10 +55,15 @@ final class ClientConnectionManager {
         return builder;
     }
 
+    RetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+
     void close() {
         synchronized (lock) {
-            if (vertx != null) {
-                vertx.close();
+            // the shared runtime is owned by the creator
+            if (runtime != null && runtime != builder.runtime()) {
+                runtime.close();
             }
         }
 
@@ -68,12 +72,36 @@ final class ClientConnectionManager {
         }
     }
 
-    ManagedChannelBuilder<?> defaultChannelBuilder() {
-        return defaultChannelBuilder(builder.target());
+    ManagedChannelBuilder<?> defaultChannelBuilder(String target) {
+        return vertxChannelBuilder(target);
+    }
+
+    /**
+     * Build a channel bound to the next event loop of the runtime, and initialize it on a context
+     * of that event loop, so that the stubs created by {@code init} complete their calls where
+     * the responses arrive. {@link VertxChannelBuilder#build()} binds the channel to the event
+     * loop of the caller's context instead, which would put all the channels created from a
+     * callback on the same event loop.
+     *
+     * @param target the target of the channel
+     * @param init initializes the channel, e.g. creates its stubs
+     * @return the result of {@code init}
+     */
+    <T> T buildPooledChannel(String target, Function<ManagedChannel, T> init) {
+        return VertxInternals.onNewEventLoop(
+                vertx(),
+                eventLoop ->
+                        init.apply(
+                                vertxChannelBuilder(target)
+                                        .nettyBuilder()
+                                        .eventLoopGroup(eventLoop)
+                                        .channelFactory(VertxInternals.channelFactory(vertx()))
+                                        .executor(eventLoop)
+                                        .build()));
     }
 
     @SuppressWarnings("rawtypes")
-    ManagedChannelBuilder<?> defaultChannelBuilder(String target) {
+    private VertxChannelBuilder vertxChannelBuilder(String target) {
         if (target == null) {
             throw new IllegalArgumentException("At least one endpoint should be provided");
         }
@@ -149,46 +177,44 @@ final class ClientConnectionManager {
         return channelBuilder;
     }
 
-    public ManagedChannel getInitChannel() {
-        if (this.initChannel == null) {
-            synchronized (lock) {
-                if (this.initChannel == null) {
-                    this.initChannel = defaultChannelBuilder().build();
-                }
-            }
-        }
-        return this.initChannel;
-    }
-
     /**
-     * Create stub with saved integrated channel. Used to create some xline servers
+     * Split the target into one target per seed endpoint, so that the seeds could be queried in
+     * parallel. Targets not resolved by the {@link IPNameResolver} are returned as is.
      *
-     * @param supplier the stub supplier
-     * @param  <T> the type of stub
-     * @return the attached stub
+     * @return the seed targets
      */
-    <T extends AbstractStub<T>> T newStub(Function<ManagedChannel, T> supplier) {
-        return newStub(supplier, this.getInitChannel());
-    }
-
-    private <T extends AbstractStub<T>> T newStub(
-            Function<ManagedChannel, T> stubCustomizer, ManagedChannel channel) {
-        T stub = stubCustomizer.apply(channel);
-        if (builder.waitForReady()) {
-            stub = stub.withWaitForReady();
+    List<String> seedTargets() {
+        String target = builder.target();
+        if (target == null) {
+            throw new IllegalArgumentException("At least one endpoint should be provided");
+        }
+        URI uri = URI.create(target);
+        if (!IPNameResolver.SCHEME.equals(uri.getScheme()) || uri.getPath() == null) {
+            return Collections.singletonList(target);
+        }
+        String authority = uri.getAuthority() != null ? uri.getAuthority() : "";
+        List<String> seeds = new ArrayList<>();
+        for (String endpoint : uri.getPath().substring(1).split(",")) {
+            if (!endpoint.isEmpty()) {
+                seeds.add(
+                        String.format("%s://%s/%s", IPNameResolver.SCHEME, authority, endpoint));
+            }
         }
-        return stub;
+        return seeds.isEmpty() ? Collections.singletonList(target) : seeds;
     }
 
     Vertx vertx() {
-        if (this.vertx == null) {
+        if (this.runtime == null) {
             synchronized (this.lock) {
-                if (this.vertx == null) {
-                    this.vertx = Vertx.vertx(new VertxOptions().setUseDaemonThread(true));
+                if (this.runtime == null) {
+                    this.runtime =
+                            builder.runtime() != null
+                                    ? builder.runtime()
+                                    : XlineRuntime.create(builder.eventLoops());
                 }
             }
         }
 
-        return this.vertx;
+        return this.runtime.vertx();
     }
 }
@@ -5,8 +5,14 @@ import cloud.xline.jxline.ClientBuilder;
 
 import cloud.xline.jxline.KV;
 import cloud.xline.jxline.ProtocolClient;
+import cloud.xline.jxline.Session;
+import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.support.MemorizingClientSupplier;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
 /** Xline client implementation. */
 public final class ClientImpl implements Client {
 
@@ -14,7 +20,9 @@ public final class ClientImpl implements Client {
 
     private final ProtocolClient protocolClient;
 
-    private final MemorizingClientSupplier<KV> kvClient;
+    private final MemorizingClientSupplier<KVImpl> kvClient;
+
+    private final AtomicBoolean closed;
 
     /**
      * Create a new client instance.
@@ -26,6 +34,7 @@ public final class ClientImpl implements Client {
         this.protocolClient = new ProtocolClientImpl(this.manager);
         this.kvClient =
                 new MemorizingClientSupplier<>(() -> new KVImpl(this.protocolClient, this.manager));
+        this.closed = new AtomicBoolean();
     }
 
     @Override
@@ -37,4 +46,26 @@ public final class ClientImpl implements Client {
     public KV getKVClient() {
         return this.kvClient.get();
     }
+
+    @Override
+    public KV withNamespace(ByteSequence namespace) {
+        requireNonNull(namespace, "namespace should not be null");
+        return new KVImpl(this.protocolClient, this.manager, namespace, null);
+    }
+
+    @Override
+    public Session newSession() {
+        return new SessionImpl(this.protocolClient, this.kvClient.get(), this.manager);
+    }
+
+    @Override
+    public void close() {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        this.kvClient.close();
+        // stop the timers, the lease stream and the channels before the runtime is closed
+        this.protocolClient.close();
+        this.manager.close();
+    }
 }
@@ -0,0 +1,205 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.exceptions.CurpException;
+import com.curp.protobuf.CurpError;
+import com.curp.protobuf.LeaseKeepAliveMsg;
+import com.curp.protobuf.ProposeId;
+import com.curp.protobuf.VertxProtocolGrpc;
+import com.google.protobuf.Empty;
+import io.grpc.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.streams.WriteStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the client id assigned by the cluster alive.
+ *
+ * <p>The client id is obtained by sending a heartbeat with client id 0 on the {@code
+ * LeaseKeepAlive} stream to the leader. The server returns a new client id whenever the one in
+ * the heartbeat is unknown or expired, so the same stream is used to renew it.
+ */
+final class ClientLease {
+    /** The heartbeat interval in milliseconds */
+    static final long KEEP_ALIVE_INTERVAL = 1000;
+
+    /** The interval in milliseconds before reconnecting a broken stream */
+    static final long RECONNECT_INTERVAL = 500;
+
+    /**
+     * The failed connections in a row after which the callers waiting for a client id are failed,
+     * the reconnection goes on for the next ones
+     */
+    static final int RECONNECT_LIMIT = 3;
+
+    private final Logger logger;
+    private final Vertx vertx;
+    private final Supplier<Future<VertxProtocolGrpc.ProtocolVertxStub>> leader;
+    private Promise<ClientId> clientId;
+    private volatile WriteStream<LeaseKeepAliveMsg> stream;
+    private volatile boolean closed;
+    private boolean started;
+    private int failures;
+
+    ClientLease(Vertx vertx, Supplier<Future<VertxProtocolGrpc.ProtocolVertxStub>> leader) {
+        this.logger = LoggerFactory.getLogger(getClass());
+        this.vertx = vertx;
+        this.leader = leader;
+        this.clientId = Promise.promise();
+    }
+
+    /** Start keeping the client id alive, it does nothing if already started */
+    synchronized void start() {
+        if (this.started) {
+            return;
+        }
+        this.started = true;
+        // detach from the caller's context, otherwise the stream is cancelled along with it
+        Context.ROOT.run(this::keepAlive);
+    }
+
+    void close() {
+        this.closed = true;
+        WriteStream<LeaseKeepAliveMsg> stream = this.stream;
+        if (stream != null) {
+            stream.end();
+        }
+    }
+
+    /**
+     * Get the current client id
+     *
+     * @return a {@link Future} completes once the cluster has assigned a client id, failed with
+     *     {@code RpcTransport} if the stream fails {@link #RECONNECT_LIMIT} times in a row before
+     */
+    synchronized Future<ClientId> clientId() {
+        return this.clientId.future();
+    }
+
+    /**
+     * Renew the client id after the server returns {@code ExpiredClientId}. It does nothing if the
+     * client id has already been renewed.
+     *
+     * @param expired the expired client id
+     */
+    void expire(long expired) {
+        synchronized (this) {
+            Future<ClientId> current = this.clientId.future();
+            if (!current.isComplete() || current.result().id() != expired) {
+                return;
+            }
+            logger.info("client id {} expired, renewing", expired);
+            this.clientId = Promise.promise();
+        }
+        WriteStream<LeaseKeepAliveMsg> stream = this.stream;
+        if (stream != null) {
+            this.heartbeat(stream);
+        }
+    }
+
+    private void keepAlive() {
+        if (this.closed) {
+            return;
+        }
+        AtomicLong timer = new AtomicLong(-1);
+        this.leader
+                .get()
+                .compose(
+                        leader ->
+                                leader.leaseKeepAlive(
+                                        stream -> {
+                                            this.stream = stream;
+                                            this.heartbeat(stream);
+                                            timer.set(
+                                                    this.vertx.setPeriodic(
+                                                            KEEP_ALIVE_INTERVAL,
+                                                            t -> this.heartbeat(stream)));
+                                        }))
+                .onComplete(
+                        ar -> {
+                            this.vertx.cancelTimer(timer.get());
+                            this.stream = null;
+                            if (ar.succeeded()) {
+                                this.onClientId(ar.result().getClientId());
+                                this.keepAlive();
+                                return;
+                            }
+                            logger.warn("lease keep alive failed, " + ar.cause());
+                            this.onFailure();
+                            this.vertx.setTimer(RECONNECT_INTERVAL, t -> this.keepAlive());
+                        });
+    }
+
+    private void heartbeat(WriteStream<LeaseKeepAliveMsg> stream) {
+        long id;
+        synchronized (this) {
+            Future<ClientId> current = this.clientId.future();
+            id = current.isComplete() ? current.result().id() : 0;
+        }
+        stream.write(LeaseKeepAliveMsg.newBuilder().setClientId(id).build());
+    }
+
+    /**
+     * Fail the callers waiting for a client id once the stream has failed too many times in a row,
+     * so they retry under their own deadline instead of waiting for the cluster forever. A client
+     * id already assigned is kept, it is valid until the server expires it.
+     */
+    private void onFailure() {
+        Promise<ClientId> pending;
+        synchronized (this) {
+            if (++this.failures < RECONNECT_LIMIT || this.clientId.future().isComplete()) {
+                return;
+            }
+            this.failures = 0;
+            pending = this.clientId;
+            this.clientId = Promise.promise();
+        }
+        pending.tryFail(
+                new CurpException(
+                        CurpError.newBuilder()
+                                .setRpcTransport(Empty.newBuilder().build())
+                                .build()));
+    }
+
+    private synchronized void onClientId(long id) {
+        logger.info("client id updates to {}", id);
+        this.failures = 0;
+        ClientId next = new ClientId(id);
+        if (!this.clientId.tryComplete(next)) {
+            this.clientId = Promise.promise();
+            this.clientId.complete(next);
+        }
+    }
+
+    /** A client id assigned by the cluster, with the allocator of its sequence numbers. */
+    static final class ClientId {
+        private final long id;
+        private final Tracker tracker;
+
+        ClientId(long id) {
+            this.id = id;
+            this.tracker = new Tracker();
+        }
+
+        long id() {
+            return this.id;
+        }
+
+        /**
+         * Generate a new propose id
+         *
+         * @return the propose id
+         */
+        ProposeId nextProposeId() {
+            return ProposeId.newBuilder()
+                    .setClientId(this.id)
+                    .setSeqNum(this.tracker.nextSeqNum())
+                    .build();
+        }
+    }
+}
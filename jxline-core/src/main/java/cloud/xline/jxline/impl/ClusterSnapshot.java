@@ -0,0 +1,85 @@
+package cloud.xline.jxline.impl;
+
+import com.curp.protobuf.FetchClusterResponse;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The cluster state persisted to a local file, so that a restarted client could reconnect to the
+ * members without a round trip to the seeds. The file IO runs on the given executor.
+ */
+final class ClusterSnapshot {
+    private final Logger logger;
+    private final Path path;
+    private final Executor executor;
+    private final AtomicReference<FetchClusterResponse> latest;
+    private FetchClusterResponse written;
+
+    ClusterSnapshot(Path path, Executor executor) {
+        this.logger = LoggerFactory.getLogger(getClass());
+        this.path = path;
+        this.executor = executor;
+        this.latest = new AtomicReference<>();
+    }
+
+    /**
+     * Load the snapshot
+     *
+     * @return a {@link Future} of the cluster state, null if there is no usable snapshot
+     */
+    Future<FetchClusterResponse> load() {
+        Promise<FetchClusterResponse> promise = Promise.promise();
+        this.executor.execute(
+                () -> {
+                    try {
+                        promise.complete(FetchClusterResponse.parseFrom(Files.readAllBytes(path)));
+                    } catch (NoSuchFileException e) {
+                        promise.complete(null);
+                    } catch (IOException e) {
+                        logger.warn("failed to load the cluster snapshot " + path + ", " + e);
+                        promise.complete(null);
+                    }
+                });
+        return promise.future();
+    }
+
+    /**
+     * Save the cluster state in the background, only the latest one is written if the saves pile
+     * up.
+     *
+     * @param state the cluster state
+     */
+    void save(FetchClusterResponse state) {
+        this.latest.set(state);
+        this.executor.execute(this::flush);
+    }
+
+    private synchronized void flush() {
+        FetchClusterResponse state = this.latest.get();
+        if (state == this.written) {
+            return;
+        }
+        try {
+            Path tmp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+            Files.write(tmp, state.toByteArray());
+            Files.move(
+                    tmp,
+                    this.path,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            this.written = state;
+        } catch (IOException e) {
+            logger.warn("failed to save the cluster snapshot " + path + ", " + e);
+        }
+    }
+}
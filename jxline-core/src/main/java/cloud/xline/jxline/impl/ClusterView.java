@@ -0,0 +1,121 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Replica;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the cluster state. It is published as a whole, so a propose reads a
+ * consistent combination of the leader, the cluster version and the members in a single load.
+ */
+final class ClusterView {
+    private final long leaderId;
+    private final long term;
+    private final long clusterVersion;
+    private final Map<Long, MemberChannels.MemberChannel> members;
+    private final List<Replica> replicas;
+    @Nullable private final MemberChannels.MemberChannel leader;
+    private final int quorum;
+    private final int superQuorum;
+
+    ClusterView(
+            long leaderId,
+            long term,
+            long clusterVersion,
+            Map<Long, MemberChannels.MemberChannel> members) {
+        this.leaderId = leaderId;
+        this.term = term;
+        this.clusterVersion = clusterVersion;
+        this.members = Collections.unmodifiableMap(members);
+        this.replicas = List.copyOf(members.values());
+        this.leader = members.get(leaderId);
+        this.quorum = quorum(members.size());
+        this.superQuorum = superQuorum(members.size());
+    }
+
+    /**
+     * Create a new view with another leader
+     *
+     * @param leaderId the leader id
+     * @param term the term of the leader
+     * @return the new view
+     */
+    ClusterView withLeader(long leaderId, long term) {
+        return new ClusterView(leaderId, term, this.clusterVersion, this.members);
+    }
+
+    /**
+     * Create a new view with another member set
+     *
+     * @param clusterVersion the cluster version of the member set
+     * @param members the channels of the members
+     * @return the new view
+     */
+    ClusterView withMembers(long clusterVersion, Map<Long, MemberChannels.MemberChannel> members) {
+        return new ClusterView(this.leaderId, this.term, clusterVersion, members);
+    }
+
+    long leaderId() {
+        return this.leaderId;
+    }
+
+    long term() {
+        return this.term;
+    }
+
+    long clusterVersion() {
+        return this.clusterVersion;
+    }
+
+    /**
+     * Get the members
+     *
+     * @return the channels of the members, keyed by the member id
+     */
+    Map<Long, MemberChannels.MemberChannel> members() {
+        return this.members;
+    }
+
+    /**
+     * Get the routing table, the members with the statistics observed by this client
+     *
+     * @return the replicas
+     */
+    List<Replica> replicas() {
+        return this.replicas;
+    }
+
+    /**
+     * Get leader
+     *
+     * @return Leader or null if there are some disjoints in local members.
+     */
+    @Nullable
+    MemberChannels.MemberChannel leader() {
+        return this.leader;
+    }
+
+    int quorum() {
+        return this.quorum;
+    }
+
+    int superQuorum() {
+        return this.superQuorum;
+    }
+
+    static int superQuorum(int size) {
+        int faultTolerance = size - quorum(size);
+        return faultTolerance + recoverQuorum(size);
+    }
+
+    static int quorum(int size) {
+        return size / 2 + 1;
+    }
+
+    static int recoverQuorum(int size) {
+        return quorum(size) / 2 + 1;
+    }
+}
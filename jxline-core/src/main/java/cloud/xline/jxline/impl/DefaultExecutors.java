@@ -0,0 +1,51 @@
+package cloud.xline.jxline.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/** The executors created by the client when no executor service is configured. */
+final class DefaultExecutors {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultExecutors.class);
+
+    private DefaultExecutors() {}
+
+    /**
+     * Create the executor owned by the client
+     *
+     * @param virtualThreads whether to use virtual threads, null means using them if supported
+     * @return the executor
+     */
+    static ExecutorService create(Boolean virtualThreads) {
+        if (!Boolean.FALSE.equals(virtualThreads)) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+            if (executor != null) {
+                return executor;
+            }
+            if (Boolean.TRUE.equals(virtualThreads)) {
+                LOGGER.warn("virtual threads require Java 21, fall back to platform threads");
+            }
+        }
+        return newPlatformThreadPool();
+    }
+
+    /**
+     * Create an unbounded pool of daemon platform threads
+     *
+     * @return the executor
+     */
+    static ExecutorService newPlatformThreadPool() {
+        ThreadFactory backingThreadFactory = Executors.defaultThreadFactory();
+        // default to daemon
+        return Executors.newCachedThreadPool(
+                r -> {
+                    Thread t = backingThreadFactory.newThread(r);
+                    t.setDaemon(true);
+                    t.setName("jxline-" + t.getName());
+                    return t;
+                });
+    }
+}
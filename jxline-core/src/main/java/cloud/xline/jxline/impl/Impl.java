@@ -1,12 +1,28 @@
 package cloud.xline.jxline.impl;
 
+import cloud.xline.jxline.ClientBuilder;
+import cloud.xline.jxline.RetryPolicy;
+import cloud.xline.jxline.exceptions.XlineException;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 abstract class Impl {
     private final Logger logger;
@@ -62,14 +78,201 @@ abstract class Impl {
     }
 
     /**
-     * Converts Future to CompletableFuture.
+     * Converts Future to CompletableFuture. The returned future is completed on the {@link
+     * ClientBuilder#completionExecutor() completion executor} if there is one, or on the executor
+     * of the client otherwise, so a blocking dependent stage never stalls an event loop.
      *
      * @param sourceFuture the Future to wrap
      * @return a {@link CompletableFuture} wrapping the given {@link Future}
      */
     protected <S> CompletableFuture<S> completable(Future<S> sourceFuture) {
-        return sourceFuture.toCompletionStage().toCompletableFuture();
+        Executor configured = this.connectionManager.builder().completionExecutor();
+        Executor executor =
+                configured != null ? configured : this.connectionManager.getExecutorService();
+        CompletableFuture<S> future = new CompletableFuture<>();
+        sourceFuture.onComplete(
+                ar -> {
+                    try {
+                        executor.execute(() -> complete(future, ar));
+                    } catch (RejectedExecutionException e) {
+                        // e.g. the executor is shut down, do not leave the caller hanging
+                        complete(future, ar);
+                    }
+                });
+        return future;
     }
 
-    // TODO: implement retry policy
+    private static <S> void complete(CompletableFuture<S> future, AsyncResult<S> ar) {
+        if (ar.succeeded()) {
+            future.complete(ar.result());
+        } else {
+            future.completeExceptionally(ar.cause());
+        }
+    }
+
+    /**
+     * Run the task in the given gRPC context. The calls started by the task are bound to the
+     * context, and will be cancelled once the context is cancelled.
+     *
+     * @param context the gRPC context
+     * @param task the task to run
+     * @return the result of the task
+     */
+    protected static <T> T inContext(Context context, Supplier<T> task) {
+        Context previous = context.attach();
+        try {
+            return task.get();
+        } finally {
+            context.detach(previous);
+        }
+    }
+
+    /**
+     * Make the call in a gRPC context with the given deadline, the context is cancelled once the
+     * call completes.
+     *
+     * @param timeout the deadline of the call, null means no deadline
+     * @param call the call
+     * @return the result of the call
+     */
+    protected <T> CompletableFuture<T> withinDeadline(
+            @Nullable Duration timeout, Supplier<CompletableFuture<T>> call) {
+        if (timeout == null) {
+            return call.get();
+        }
+        Context.CancellableContext context =
+                Context.current()
+                        .withDeadlineAfter(
+                                timeout.toNanos(),
+                                TimeUnit.NANOSECONDS,
+                                this.connectionManager.vertx().nettyEventLoopGroup());
+        CompletableFuture<T> future;
+        try {
+            future = inContext(context, call);
+        } catch (RuntimeException e) {
+            context.cancel(e);
+            throw e;
+        }
+        future.whenComplete((r, e) -> context.cancel(null));
+        return future;
+    }
+
+    /**
+     * Create the context of a call. It is bounded by the deadline of the caller if there is one,
+     * or the default deadline of the client otherwise.
+     *
+     * @return the context, it should be cancelled once the call completes
+     */
+    protected Context.CancellableContext newCallContext() {
+        Context current = Context.current();
+        Duration timeout = this.connectionManager.builder().defaultDeadline();
+        if (current.getDeadline() != null || timeout == null) {
+            return current.withCancellation();
+        }
+        return current.withDeadlineAfter(
+                timeout.toNanos(),
+                TimeUnit.NANOSECONDS,
+                this.connectionManager.vertx().nettyEventLoopGroup());
+    }
+
+    /**
+     * Bound the future by the deadline of the context, it fails with {@code DEADLINE_EXCEEDED}
+     * once the deadline passes, no matter which step the call is in.
+     *
+     * @param future the future of the call
+     * @param context the context of the call
+     * @return the bounded future
+     */
+    protected static <T> Future<T> bounded(Future<T> future, Context context) {
+        if (context.getDeadline() == null) {
+            return future;
+        }
+        Promise<T> promise = Promise.promise();
+        future.onComplete(
+                ar -> {
+                    if (ar.succeeded()) {
+                        promise.tryComplete(ar.result());
+                    } else {
+                        promise.tryFail(ar.cause());
+                    }
+                });
+        context.addListener(
+                ctx -> {
+                    if (ctx.cancellationCause() instanceof TimeoutException) {
+                        promise.tryFail(
+                                XlineException.toXlineException(
+                                        Status.DEADLINE_EXCEEDED
+                                                .withDescription("deadline exceeded")
+                                                .withCause(ctx.cancellationCause())
+                                                .asRuntimeException()));
+                    }
+                },
+                Runnable::run);
+        return promise.future();
+    }
+
+    /**
+     * Execute the task with the {@link RetryPolicy} of the client. The retries are scheduled on
+     * vertx timers, no thread is blocked between two attempts.
+     *
+     * @param task the task to execute, called once per attempt
+     * @param doRetry whether the failure of an attempt is retryable
+     * @return a {@link Future} of the first successful attempt, or the last failure
+     */
+    protected <T> Future<T> execute(Supplier<Future<T>> task, Predicate<Throwable> doRetry) {
+        Promise<T> promise = Promise.promise();
+        this.attempt(task, doRetry, promise, System.nanoTime(), 1);
+        return promise.future();
+    }
+
+    private <T> void attempt(
+            Supplier<Future<T>> task,
+            Predicate<Throwable> doRetry,
+            Promise<T> promise,
+            long startNanos,
+            int attempts) {
+        Future<T> future;
+        try {
+            future = task.get();
+        } catch (Exception e) {
+            future = Future.failedFuture(e);
+        }
+        future.onComplete(
+                ar -> {
+                    if (ar.succeeded()) {
+                        promise.complete(ar.result());
+                        return;
+                    }
+                    Throwable cause = ar.cause();
+                    if (!doRetry.test(cause)) {
+                        promise.fail(cause);
+                        return;
+                    }
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+                    Optional<Duration> delay =
+                            this.connectionManager
+                                    .retryPolicy()
+                                    .nextDelay(attempts, elapsed, cause);
+                    if (delay.isEmpty()) {
+                        promise.fail(cause);
+                        return;
+                    }
+                    logger.debug(
+                            "attempt {} failed, retry in {}ms, {}",
+                            attempts,
+                            delay.get().toMillis(),
+                            cause.toString());
+                    this.connectionManager
+                            .vertx()
+                            .setTimer(
+                                    Math.max(1, delay.get().toMillis()),
+                                    t ->
+                                            this.attempt(
+                                                    task,
+                                                    doRetry,
+                                                    promise,
+                                                    startNanos,
+                                                    attempts + 1));
+                });
+    }
 }
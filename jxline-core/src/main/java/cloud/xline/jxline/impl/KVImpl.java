@@ -1,7 +1,9 @@
 package cloud.xline.jxline.impl;
 
 import cloud.xline.jxline.KV;
+import cloud.xline.jxline.ProposeResult;
 import cloud.xline.jxline.ProtocolClient;
+import cloud.xline.jxline.ReadConsistency;
 import cloud.xline.jxline.Txn;
 import cloud.xline.jxline.kv.*;
 import cloud.xline.jxline.support.Requests;
@@ -12,7 +14,11 @@ import io.etcd.jetcd.options.DeleteOption;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
@@ -20,9 +26,36 @@ public class KVImpl extends Impl implements KV {
 
     private final ProtocolClient protocolClient;
 
+    /** The namespace of the keys, resolved once per view */
+    private final ByteSequence namespace;
+
+    @Nullable private final Duration deadline;
+
     public KVImpl(ProtocolClient protocolClient, ClientConnectionManager manager) {
+        this(protocolClient, manager, manager.getNamespace(), null);
+    }
+
+    /**
+     * Create a view of the kv client, it shares the protocol client with the other views
+     *
+     * @param protocolClient the protocol client
+     * @param manager the connection manager
+     * @param namespace the namespace of the keys
+     * @param deadline the deadline of each call, null means the default deadline
+     */
+    KVImpl(
+            ProtocolClient protocolClient,
+            ClientConnectionManager manager,
+            ByteSequence namespace,
+            @Nullable Duration deadline) {
         super(manager);
         this.protocolClient = protocolClient;
+        this.namespace = namespace;
+        this.deadline = deadline;
+    }
+
+    ByteSequence namespace() {
+        return this.namespace;
     }
 
     @Override
@@ -36,12 +69,28 @@ public class KVImpl extends Impl implements KV {
         requireNonNull(key, "key should not be null");
         requireNonNull(value, "value should not be null");
         requireNonNull(option, "option should not be null");
-        Command cmd =
-                Requests.mapPutRequest(key, value, option, this.connectionManager().getNamespace());
-        return protocolClient.propose(
-                cmd,
-                true,
-                (sr, asr) -> new PutResponse(sr, asr, this.connectionManager().getNamespace()));
+        Command cmd = Requests.mapPutRequest(key, value, option, this.namespace);
+        return withinDeadline(
+                this.deadline,
+                () ->
+                        protocolClient.propose(
+                                cmd,
+                                true,
+                                (sr, asr) -> new PutResponse(sr, asr, this.namespace)));
+    }
+
+    @Override
+    public ProposeResult<PutResponse> putStaged(
+            ByteSequence key, ByteSequence value, PutOption option) {
+        requireNonNull(key, "key should not be null");
+        requireNonNull(value, "value should not be null");
+        requireNonNull(option, "option should not be null");
+        Command cmd = Requests.mapPutRequest(key, value, option, this.namespace);
+        return staged(
+                () ->
+                        protocolClient.proposeStaged(
+                                cmd,
+                                (sr, asr) -> new PutResponse(sr, asr, this.namespace)));
     }
 
     @Override
@@ -52,14 +101,27 @@ public class KVImpl extends Impl implements KV {
 
     @Override
     public CompletableFuture<GetResponse> get(ByteSequence key, GetOption option) {
+        return get(
+                key,
+                option,
+                option.isSerializable()
+                        ? ReadConsistency.SERIALIZABLE
+                        : ReadConsistency.PROPOSE);
+    }
+
+    @Override
+    public CompletableFuture<GetResponse> get(
+            ByteSequence key, GetOption option, ReadConsistency consistency) {
         requireNonNull(key, "key should not be null");
         requireNonNull(option, "option should not be null");
-        Command cmd =
-                Requests.mapRangeRequest(key, option, this.connectionManager().getNamespace());
-        return protocolClient.propose(
-                cmd,
-                true,
-                (sr, asr) -> new GetResponse(sr, asr, this.connectionManager().getNamespace()));
+        requireNonNull(consistency, "consistency should not be null");
+        Command cmd = Requests.mapRangeRequest(key, option, this.namespace);
+        return withinDeadline(
+                this.deadline,
+                () ->
+                        protocolClient
+                                .read(cmd, consistency)
+                                .thenApply(resp -> new GetResponse(resp, this.namespace)));
     }
 
     @Override
@@ -72,12 +134,26 @@ public class KVImpl extends Impl implements KV {
     public CompletableFuture<DeleteResponse> delete(ByteSequence key, DeleteOption option) {
         requireNonNull(key, "key should not be null");
         requireNonNull(option, "option should not be null");
-        Command cmd =
-                Requests.mapDeleteRequest(key, option, this.connectionManager().getNamespace());
-        return protocolClient.propose(
-                cmd,
-                true,
-                (sr, asr) -> new DeleteResponse(sr, asr, this.connectionManager().getNamespace()));
+        Command cmd = Requests.mapDeleteRequest(key, option, this.namespace);
+        return withinDeadline(
+                this.deadline,
+                () ->
+                        protocolClient.propose(
+                                cmd,
+                                true,
+                                (sr, asr) -> new DeleteResponse(sr, asr, this.namespace)));
+    }
+
+    @Override
+    public ProposeResult<DeleteResponse> deleteStaged(ByteSequence key, DeleteOption option) {
+        requireNonNull(key, "key should not be null");
+        requireNonNull(option, "option should not be null");
+        Command cmd = Requests.mapDeleteRequest(key, option, this.namespace);
+        return staged(
+                () ->
+                        protocolClient.proposeStaged(
+                                cmd,
+                                (sr, asr) -> new DeleteResponse(sr, asr, this.namespace)));
     }
 
     @Override
@@ -89,11 +165,29 @@ public class KVImpl extends Impl implements KV {
     public CompletableFuture<CompactResponse> compact(long revision, CompactOption option) {
         requireNonNull(option, "option should not be null");
         Command cmd = Requests.mapCompactRequest(revision, option);
-        return protocolClient.propose(cmd, true, CompactResponse::new);
+        return withinDeadline(
+                this.deadline, () -> protocolClient.propose(cmd, true, CompactResponse::new));
     }
 
     @Override
     public Txn txn() {
         return null;
     }
+
+    @Override
+    public KV withDeadline(Duration timeout) {
+        requireNonNull(timeout, "timeout should not be null");
+        return new KVImpl(this.protocolClient, this.connectionManager(), this.namespace, timeout);
+    }
+
+    private <T> ProposeResult<T> staged(Supplier<ProposeResult<T>> call) {
+        AtomicReference<ProposeResult<T>> result = new AtomicReference<>();
+        withinDeadline(
+                this.deadline,
+                () -> {
+                    result.set(call.get());
+                    return result.get().synced();
+                });
+        return result.get();
+    }
 }
@@ -0,0 +1,38 @@
+package cloud.xline.jxline.impl;
+
+import java.util.Arrays;
+
+/** A ring of the latest latency samples, to estimate the latency percentiles. */
+final class LatencySamples {
+    /** The number of samples kept */
+    static final int CAPACITY = 128;
+
+    /** The min number of samples for a meaningful estimation */
+    static final int MIN_SAMPLES = 16;
+
+    private final double[] samples = new double[CAPACITY];
+    private long count;
+
+    synchronized void record(double latency) {
+        this.samples[(int) (this.count++ % CAPACITY)] = latency;
+    }
+
+    /**
+     * Estimate the latency percentile
+     *
+     * @param percentile the percentile in (0, 1)
+     * @return the latency in milliseconds, or 0 if there are not enough samples
+     */
+    double percentile(double percentile) {
+        double[] sorted;
+        synchronized (this) {
+            if (this.count < MIN_SAMPLES) {
+                return 0;
+            }
+            sorted = Arrays.copyOf(this.samples, (int) Math.min(this.count, CAPACITY));
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
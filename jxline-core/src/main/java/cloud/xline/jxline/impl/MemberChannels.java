@@ -0,0 +1,206 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Replica;
+import com.curp.protobuf.Member;
+import com.curp.protobuf.VertxProtocolGrpc;
+import com.xline.protobuf.VertxKVGrpc;
+import io.etcd.jetcd.resolver.IPNameResolver;
+import io.grpc.ManagedChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The registry of the channels to the cluster members, keyed by the member id. Channels are
+ * reused across cluster version changes as long as the addresses of the member are unchanged.
+ */
+final class MemberChannels {
+    /** The grace period in milliseconds for the in-flight calls on a removed channel */
+    static final long DRAIN_TIMEOUT = 30_000;
+
+    /** The time in milliseconds after which a channel added on saturation is removed if idle */
+    static final long IDLE_TIMEOUT = 60_000;
+
+    private final Logger logger;
+    private final ClientConnectionManager connectionManager;
+    private final Map<Long, MemberChannel> channels;
+    private final long shrinkTimer;
+
+    MemberChannels(ClientConnectionManager connectionManager) {
+        this.logger = LoggerFactory.getLogger(getClass());
+        this.connectionManager = connectionManager;
+        this.channels = new HashMap<>();
+        this.shrinkTimer =
+                connectionManager.vertx().setPeriodic(IDLE_TIMEOUT, t -> this.shrink());
+    }
+
+    /**
+     * Update the registry to the given members. Channels are only created for new members or
+     * members whose addresses have changed, the channels of the removed members are drained and
+     * closed.
+     *
+     * @param members the members of the cluster
+     * @return the channels of the members
+     */
+    synchronized Map<Long, MemberChannel> update(List<Member> members) {
+        Map<Long, MemberChannel> updated = new HashMap<>();
+        Set<Long> removed = new HashSet<>(this.channels.keySet());
+        for (Member member : members) {
+            Set<String> addrs = endpoints(member.getAddrsList());
+            MemberChannel channel = this.channels.get(member.getId());
+            if (channel == null || !channel.addrs.equals(addrs)) {
+                if (channel != null) {
+                    logger.info("addresses of member {} changed to {}", member.getId(), addrs);
+                    this.drain(channel);
+                }
+                channel =
+                        new MemberChannel(
+                                member.getId(), member.getName(), addrs, this.connect(addrs));
+                this.channels.put(member.getId(), channel);
+            }
+            removed.remove(member.getId());
+            updated.put(member.getId(), channel);
+        }
+        for (Long id : removed) {
+            logger.info("member {} removed", id);
+            this.drain(this.channels.remove(id));
+        }
+        return updated;
+    }
+
+    /** Close all channels */
+    synchronized void close() {
+        this.connectionManager.vertx().cancelTimer(this.shrinkTimer);
+        for (MemberChannel channel : this.channels.values()) {
+            channel.pool.shutdownNow();
+        }
+        this.channels.clear();
+    }
+
+    /** Remove the idle channels added to the pools on saturation */
+    private synchronized void shrink() {
+        for (MemberChannel channel : this.channels.values()) {
+            for (ManagedChannel idle :
+                    channel.pool.shrink(TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT))) {
+                logger.debug("remove an idle channel to member {}", channel.id);
+                idle.shutdown();
+                this.connectionManager.vertx().setTimer(DRAIN_TIMEOUT, t -> idle.shutdownNow());
+            }
+        }
+    }
+
+    private ChannelPool connect(Set<String> addrs) {
+        String authority = this.connectionManager.builder().authority();
+        String ips =
+                String.format(
+                        "%s://%s/%s",
+                        IPNameResolver.SCHEME,
+                        authority != null ? authority : "",
+                        String.join(",", addrs));
+        return new ChannelPool(
+                init -> this.connectionManager.buildPooledChannel(ips, init),
+                this.connectionManager.builder().channelsPerMember(),
+                this.connectionManager.builder().maxChannelsPerMember());
+    }
+
+    /**
+     * Stop accepting new calls on the channels, the in-flight calls have {@link #DRAIN_TIMEOUT}
+     * to complete.
+     */
+    private void drain(MemberChannel channel) {
+        channel.pool.shutdown();
+        this.connectionManager
+                .vertx()
+                .setTimer(DRAIN_TIMEOUT, t -> channel.pool.shutdownNow());
+    }
+
+    private static Set<String> endpoints(List<String> addrs) {
+        return addrs.stream()
+                .map(
+                        addr -> {
+                            if (!addr.startsWith("http")) {
+                                return URI.create("http://" + addr);
+                            }
+                            return URI.create(addr);
+                        })
+                .map(MemberChannels::getEndpoint)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    static String getEndpoint(URI uri) {
+        return uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+    }
+
+    /** The channels to a member, with the stubs of the services on them. */
+    static final class MemberChannel implements Replica {
+        private final long id;
+        private final String name;
+        private final Set<String> addrs;
+        private final ChannelPool pool;
+        private final MemberStats stats;
+
+        MemberChannel(long id, String name, Set<String> addrs, ChannelPool pool) {
+            this.id = id;
+            this.name = name;
+            this.addrs = Collections.unmodifiableSet(addrs);
+            this.pool = pool;
+            this.stats = new MemberStats();
+        }
+
+        @Override
+        public long id() {
+            return this.id;
+        }
+
+        @Override
+        public String name() {
+            return this.name;
+        }
+
+        @Override
+        public Set<String> addrs() {
+            return this.addrs;
+        }
+
+        @Override
+        public double latency() {
+            return this.stats.latency();
+        }
+
+        @Override
+        public double errorRate() {
+            return this.stats.errorRate();
+        }
+
+        @Override
+        public int inFlight() {
+            return this.stats.inFlight();
+        }
+
+        MemberStats stats() {
+            return this.stats;
+        }
+
+        /**
+         * Get the stub of the curp protocol service on the least loaded channel
+         *
+         * @return the protocol stub
+         */
+        VertxProtocolGrpc.ProtocolVertxStub protocol() {
+            return this.pool.protocol();
+        }
+
+        /**
+         * Get the stub of the xline kv service on the least loaded channel
+         *
+         * @return the kv stub
+         */
+        VertxKVGrpc.KVVertxStub kv() {
+            return this.pool.kv();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package cloud.xline.jxline.impl;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/** The statistics of the calls to a member observed by this client. */
+final class MemberStats {
+    /** The weight of the latest sample in the moving average */
+    static final double ALPHA = 0.2;
+
+    private final AtomicInteger inFlight;
+    private final CircuitBreaker breaker;
+    private final LatencySamples syncLatency;
+    private double latency;
+    private double errorRate;
+
+    MemberStats() {
+        this.inFlight = new AtomicInteger();
+        this.breaker = new CircuitBreaker();
+        this.syncLatency = new LatencySamples();
+    }
+
+    /**
+     * Track the call, it should be the raw call to the stub so that the failures could be
+     * classified by their status.
+     *
+     * @param call the call to the member
+     * @return the result of the call
+     */
+    <T> Future<T> track(Supplier<Future<T>> call) {
+        return this.track(call, false);
+    }
+
+    /**
+     * Track the waitSynced call. It also waits for the command to be committed and synced, so its
+     * latency goes to {@link #syncLatency()} rather than the moving average of the member.
+     *
+     * @param call the waitSynced call to the member
+     * @return the result of the call
+     */
+    <T> Future<T> trackSynced(Supplier<Future<T>> call) {
+        return this.track(call, true);
+    }
+
+    private <T> Future<T> track(Supplier<Future<T>> call, boolean synced) {
+        this.inFlight.incrementAndGet();
+        Deadline deadline = Context.current().getDeadline();
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            this.inFlight.decrementAndGet();
+            throw e;
+        }
+        return future.onComplete(ar -> this.onComplete(start, deadline, synced, ar));
+    }
+
+    private void onComplete(
+            long startNanos, @Nullable Deadline deadline, boolean synced, AsyncResult<?> ar) {
+        this.inFlight.decrementAndGet();
+        boolean fault = false;
+        if (ar.failed()) {
+            Status.Code code = Status.fromThrowable(ar.cause()).getCode();
+            if (code == Status.Code.CANCELLED || (deadline != null && deadline.isExpired())) {
+                // cancelled by this client, or cut short by the deadline of the caller, the
+                // sample says nothing about the member
+                this.breaker.onCancel();
+                return;
+            }
+            fault = isFault(code);
+        }
+        if (fault) {
+            this.breaker.onFailure();
+        } else {
+            this.breaker.onSuccess();
+        }
+        double sample = (System.nanoTime() - startNanos) / 1e6;
+        if (synced && ar.succeeded()) {
+            this.syncLatency.record(sample);
+        }
+        synchronized (this) {
+            if (!synced) {
+                this.latency =
+                        this.latency == 0
+                                ? sample
+                                : this.latency + ALPHA * (sample - this.latency);
+            }
+            this.errorRate += ALPHA * ((fault ? 1 : 0) - this.errorRate);
+        }
+    }
+
+    /**
+     * Whether the status means the member is unhealthy, rather than rejecting the request. {@code
+     * UNKNOWN} is left out, it is what the server returns for an unexpected application error.
+     *
+     * @param code the status code
+     * @return true if it is a fault of the member
+     */
+    static boolean isFault(Status.Code code) {
+        switch (code) {
+            case UNAVAILABLE:
+            case DEADLINE_EXCEEDED:
+            case INTERNAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    synchronized double latency() {
+        return this.latency;
+    }
+
+    synchronized double errorRate() {
+        return this.errorRate;
+    }
+
+    /**
+     * Check the circuit breaker of the member before calling it
+     *
+     * @return true if the member is healthy or should be probed
+     */
+    boolean tryAcquire() {
+        return this.breaker.tryAcquire();
+    }
+
+    /**
+     * Get the latency samples of the successful waitSynced calls, which also wait for the command
+     * to be committed and differ from the other calls.
+     *
+     * @return the samples
+     */
+    LatencySamples syncLatency() {
+        return this.syncLatency;
+    }
+
+    int inFlight() {
+        return this.inFlight.get();
+    }
+}
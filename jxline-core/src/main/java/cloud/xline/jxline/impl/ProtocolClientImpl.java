@@ -1,9 +1,11 @@
 package cloud.xline.jxline.impl;
 
+import cloud.xline.jxline.ProposeResult;
 import cloud.xline.jxline.ProtocolClient;
+import cloud.xline.jxline.ReadConsistency;
+import cloud.xline.jxline.Replica;
 import cloud.xline.jxline.exceptions.CurpException;
 import cloud.xline.jxline.exceptions.XlineException;
-import cloud.xline.jxline.utils.Invoke;
 import cloud.xline.jxline.utils.Pair;
 import com.curp.protobuf.*;
 import com.google.protobuf.Empty;
@@ -11,39 +13,76 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.xline.protobuf.Command;
 import com.xline.protobuf.CommandResponse;
 import com.xline.protobuf.ExecuteError;
+import com.xline.protobuf.RangeRequest;
+import com.xline.protobuf.RangeResponse;
 import com.xline.protobuf.SyncResponse;
-import io.etcd.jetcd.resolver.IPNameResolver;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 
 import javax.annotation.Nullable;
-import java.net.URI;
+import java.net.ConnectException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.UUID;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 class ProtocolClientImpl extends Impl implements ProtocolClient {
 
+    private final MemberChannels memberChannels;
+
     private final State state;
 
+    private final ClientLease clientLease;
+
+    /** The in-flight cluster fetching, concurrent triggers share it */
+    private final AtomicReference<Future<FetchClusterResponse>> fetching;
+
+    /** The bootstrap of the cluster state, the calls are queued behind it */
+    private final AtomicReference<Future<Void>> bootstrapping;
+
+    @Nullable private final ClusterSnapshot snapshot;
+
+    private final long refreshTimer;
+
     ProtocolClientImpl(ClientConnectionManager connectionManager) {
         super(connectionManager);
-        this.state = getInitState();
-    }
-
-    private ProposeId getProposeId() {
-        UUID uuid = UUID.randomUUID();
-        // TODO: obtain from server
-        long clientId = uuid.getMostSignificantBits();
-        // TODO: implement tracker
-        long seqNum = uuid.getMostSignificantBits();
-        return ProposeId.newBuilder().setClientId(clientId).setSeqNum(seqNum).build();
+        this.memberChannels = new MemberChannels(connectionManager);
+        this.snapshot =
+                connectionManager.builder().clusterSnapshot() != null
+                        ? new ClusterSnapshot(
+                                connectionManager.builder().clusterSnapshot(),
+                                connectionManager.getExecutorService())
+                        : null;
+        this.state = new State(new ClusterView(0, 0, 0, Collections.emptyMap()));
+        this.fetching = new AtomicReference<>();
+        this.bootstrapping = new AtomicReference<>();
+        this.clientLease =
+                new ClientLease(
+                        connectionManager.vertx(),
+                        () -> this.leader().map(MemberChannels.MemberChannel::protocol));
+        this.ready();
+        this.refreshTimer =
+                connectionManager
+                        .vertx()
+                        .setPeriodic(
+                                CLUSTER_REFRESH_INTERVAL,
+                                t -> {
+                                    if (!this.state.view().members().isEmpty()) {
+                                        this.fetchCluster();
+                                    }
+                                });
     }
 
     @Override
@@ -51,85 +90,746 @@ class ProtocolClientImpl extends Impl implements ProtocolClient {
             Command cmd,
             boolean useFastPath,
             BiFunction<CommandResponse, SyncResponse, T> convert) {
-        ProposeId id = this.getProposeId();
-        Executor executor = connectionManager().getExecutorService();
-        if (!useFastPath) {
-            return CompletableFuture.supplyAsync(() -> this.fastRound(id, cmd), executor)
-                    .handleAsync((r, ex) -> this.slowRound(id), executor)
-                    .thenApply(pair -> pair.apply(convert));
-        }
-        CompletionService<T> service =
-                new ExecutorCompletionService<>(connectionManager().getExecutorService());
-        service.submit(() -> convert.apply(this.fastRound(id, cmd), null));
-        service.submit(() -> this.slowRound(id).apply(convert));
-
-        return CompletableFuture.supplyAsync(
-                () -> {
-                    CurpException exception = null;
-                    for (int i = 0; true; i++) {
-                        try {
-                            return service.take().get();
-                        } catch (InterruptedException e) {
-                            throw XlineException.toXlineException(e);
-                        } catch (ExecutionException e) {
-                            Throwable cause = e.getCause();
-                            if (cause instanceof XlineException) {
-                                throw (XlineException) cause;
+        return this.submit(new Proposal<>(cmd, useFastPath, convert, null));
+    }
+
+    @Override
+    public <T> ProposeResult<T> proposeStaged(
+            Command cmd, BiFunction<CommandResponse, SyncResponse, T> convert) {
+        Promise<T> speculative = Promise.promise();
+        CompletableFuture<T> synced = this.submit(new Proposal<>(cmd, true, convert, speculative));
+        return new ProposeResult<>(completable(speculative.future()), synced);
+    }
+
+    @Override
+    public CompletableFuture<RangeResponse> read(Command cmd, ReadConsistency consistency) {
+        if (!cmd.getRequest().hasRangeRequest()) {
+            throw new IllegalArgumentException("only range commands could be read");
+        }
+        switch (consistency) {
+            case LINEARIZABLE:
+                return this.call(() -> this.linearizableRead(cmd));
+            case SERIALIZABLE:
+                return this.call(() -> this.serializableRead(cmd, 0));
+            default:
+                return this.propose(cmd, true, (sr, asr) -> sr.getRangeResponse());
+        }
+    }
+
+    @Override
+    public List<Replica> routingTable() {
+        return this.state.view().replicas();
+    }
+
+    @Override
+    public CompletableFuture<RangeResponse> readAtLeast(Command cmd, long revision) {
+        if (!cmd.getRequest().hasRangeRequest()) {
+            throw new IllegalArgumentException("only range commands could be read");
+        }
+        return this.call(
+                () ->
+                        fallbackIfBehind(
+                                this.serializableRead(cmd, revision),
+                                () -> this.linearizableRead(cmd)));
+    }
+
+    /**
+     * Fall back to another read if no replica has applied the required revision yet
+     *
+     * @param read the serializable read
+     * @param fallback the other read, e.g. through the leader
+     * @return the result of the serializable read, or of the fallback if all replicas are behind
+     */
+    static <T> Future<T> fallbackIfBehind(Future<T> read, Supplier<Future<T>> fallback) {
+        return read.recover(
+                e -> {
+                    if (e instanceof BehindException) {
+                        return fallback.get();
+                    }
+                    return Future.failedFuture(e);
+                });
+    }
+
+    /**
+     * Execute the task with retries in the context of a new call, so that all the attempts share
+     * the deadline of the call. The client state is refreshed according to the failure of an
+     * attempt before the next one.
+     *
+     * @param task the task, called once per attempt
+     * @return the result of the task
+     */
+    private <T> CompletableFuture<T> call(Supplier<Future<T>> task) {
+        Context.CancellableContext context = this.newCallContext();
+        Future<T> future =
+                execute(
+                        () ->
+                                this.ready()
+                                        .compose(v -> inContext(context, task))
+                                        .recover(this::refreshAndFail),
+                        cause -> !context.isCancelled() && shouldRetry(cause));
+        CompletableFuture<T> result =
+                completable(bounded(future, context).onComplete(ar -> context.cancel(null)));
+        result.whenComplete(
+                (r, e) -> {
+                    if (result.isCancelled()) {
+                        context.cancel(null);
+                    }
+                });
+        return result;
+    }
+
+    /** All the replicas tried have not applied the required revision yet. */
+    static final class BehindException extends RuntimeException {
+        BehindException(long revision) {
+            super("no replica has applied revision " + revision, null, false, false);
+        }
+    }
+
+    /**
+     * Read from a single replica chosen by the {@link ReplicaSelector}, and fall back to the next
+     * replica if it is unavailable or has not applied the given revision.
+     *
+     * @param cmd the range command
+     * @param revision the min revision the replica should have applied
+     * @return a {@link Future} of the {@link RangeResponse}
+     */
+    Future<RangeResponse> serializableRead(Command cmd, long revision) {
+        ClusterView view = this.state.view();
+        List<Replica> replicas =
+                this.connectionManager()
+                        .builder()
+                        .replicaSelector()
+                        .select(view.replicas());
+        RangeRequest range =
+                cmd.getRequest().getRangeRequest().toBuilder().setSerializable(true).build();
+        return rangeFirst(view, replicas.iterator(), range, revision);
+    }
+
+    /**
+     * Read from the first replica in the order that is a member of the view, and has applied the
+     * given revision
+     *
+     * @param view the cluster view
+     * @param replicas the replicas in the order to try
+     * @param range the serializable range request
+     * @param revision the min revision the replica should have applied
+     * @return a {@link Future} of the {@link RangeResponse}, failed with {@link BehindException}
+     *     if all the replicas tried are behind
+     */
+    static Future<RangeResponse> rangeFirst(
+            ClusterView view, Iterator<Replica> replicas, RangeRequest range, long revision) {
+        MemberChannels.MemberChannel member = null;
+        while (member == null && replicas.hasNext()) {
+            member = view.members().get(replicas.next().id());
+        }
+        if (member == null) {
+            return Future.failedFuture(
+                    new CurpException(
+                            CurpError.newBuilder()
+                                    .setRpcTransport(Empty.newBuilder().build())
+                                    .build()));
+        }
+        return range(member, range)
+                .compose(
+                        resp -> {
+                            if (resp.getHeader().getRevision() >= revision) {
+                                return Future.succeededFuture(resp);
+                            }
+                            if (replicas.hasNext()) {
+                                return rangeFirst(view, replicas, range, revision);
+                            }
+                            return Future.failedFuture(new BehindException(revision));
+                        },
+                        e -> {
+                            if (replicas.hasNext()
+                                    && e instanceof CurpException
+                                    && ((CurpException) e).getError().hasRpcTransport()) {
+                                return rangeFirst(view, replicas, range, revision);
                             }
-                            if (cause instanceof CurpException) {
-                                CurpException ex = ((CurpException) cause);
-                                if (ex.shouldAbortSlowRound()) {
-                                    throw (CurpException) cause;
+                            return Future.failedFuture(e);
+                        });
+    }
+
+    /**
+     * Read through the read state of the command. If the leader returns the conflicting commands
+     * in flight, wait for them to be synced and read from the leader serializably. If it returns
+     * the commit index, the leader waits for it to be applied before serving the read.
+     *
+     * @param cmd the range command
+     * @return a {@link Future} of the {@link RangeResponse}
+     */
+    Future<RangeResponse> linearizableRead(Command cmd) {
+        ClusterView view = this.state.view();
+        FetchReadStateRequest request =
+                FetchReadStateRequest.newBuilder()
+                        .setCommand(cmd.toByteString())
+                        .setClusterVersion(view.clusterVersion())
+                        .build();
+        RangeRequest range = cmd.getRequest().getRangeRequest();
+        return mapLeader(
+                view,
+                leader ->
+                        leader.stats()
+                                .track(() -> leader.protocol().fetchReadState(request))
+                                .recover(
+                                        e -> Future.failedFuture(CurpException.fromCallFailure(e)))
+                                .compose(readState -> readAfter(leader, view, readState, range)));
+    }
+
+    /**
+     * Read from the leader once the read state allows it
+     *
+     * @param leader the leader
+     * @param view the cluster view
+     * @param readState the read state of the command
+     * @param range the range request
+     * @return a {@link Future} of the {@link RangeResponse}
+     */
+    static Future<RangeResponse> readAfter(
+            MemberChannels.MemberChannel leader,
+            ClusterView view,
+            FetchReadStateResponse readState,
+            RangeRequest range) {
+        if (readState.hasCommitIndex()) {
+            // the client could not wait for the commit index to be applied, so leave it to the
+            // leader. Note that Xline's kv server runs the whole read state wait again for a
+            // non-serializable range, so the fetch above costs an extra round trip in this case.
+            return range(leader, range.toBuilder().setSerializable(false).build());
+        }
+        List<Future<WaitSyncedResponse>> synced = new ArrayList<>();
+        for (ProposeId id : readState.getIds().getInflightIdsList()) {
+            WaitSyncedRequest waitSyncReq =
+                    WaitSyncedRequest.newBuilder()
+                            .setProposeId(id)
+                            .setClusterVersion(view.clusterVersion())
+                            .build();
+            synced.add(waitSynced(leader, waitSyncReq));
+        }
+        return Future.all(synced)
+                .recover(e -> Future.failedFuture(CurpException.fromCallFailure(e)))
+                .compose(v -> range(leader, range.toBuilder().setSerializable(true).build()));
+    }
+
+    /**
+     * Send the range request to a member through the xline kv service
+     *
+     * @param member the member
+     * @param request the range request
+     * @return a {@link Future} of the {@link RangeResponse}, failed with {@link CurpException} if
+     *     the member is unavailable, {@link XlineException} otherwise
+     */
+    static Future<RangeResponse> range(MemberChannels.MemberChannel member, RangeRequest request) {
+        return member.stats()
+                .track(() -> member.kv().range(request))
+                .recover(
+                        e -> {
+                            if (Status.fromThrowable(e).getCode() == Status.Code.UNAVAILABLE) {
+                                return Future.failedFuture(CurpException.fromCallFailure(e));
+                            }
+                            return Future.failedFuture(XlineException.toXlineException(e));
+                        });
+    }
+
+    private <T> CompletableFuture<T> submit(Proposal<T> proposal) {
+        Future<T> attempts =
+                execute(
+                        proposal::attempt,
+                        cause -> !proposal.context.isCancelled() && shouldRetry(cause));
+        CompletableFuture<T> future =
+                completable(
+                        bounded(attempts, proposal.context)
+                                .onComplete(ar -> proposal.done(ar.cause())));
+        future.whenComplete(
+                (r, e) -> {
+                    if (future.isCancelled()) {
+                        proposal.cancel();
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Refresh the client state according to the failure of a call
+     *
+     * @param cause the failure of the last attempt
+     * @param clientId the client id used by the attempt, null if it does not use one
+     * @return a {@link Future} completes when the state is refreshed, or null if the failure is
+     *     not caused by a stale client state
+     */
+    @Nullable
+    private Future<Void> refresh(Throwable cause, @Nullable ClientLease.ClientId clientId) {
+        if (!(cause instanceof CurpException)) {
+            return null;
+        }
+        CurpError error = ((CurpException) cause).getError();
+        if (error.hasExpiredClientId()) {
+            if (clientId == null) {
+                return null;
+            }
+            this.clientLease.expire(clientId.id());
+            return Future.succeededFuture();
+        }
+        if (error.hasRedirect()) {
+            Redirect redirect = error.getRedirect();
+            if (redirect.hasLeaderId()
+                    && this.state.updateLeader(redirect.getLeaderId(), redirect.getTerm())) {
+                return Future.succeededFuture();
+            }
+            return this.fetchCluster().mapEmpty();
+        }
+        if (error.hasWrongClusterVersion()) {
+            return this.fetchCluster().mapEmpty();
+        }
+        if (error.hasRpcTransport()) {
+            // the member may be gone, refresh in the background and leave it to the backoff
+            this.fetchCluster();
+        }
+        return null;
+    }
+
+    private <T> Future<T> refreshAndFail(Throwable cause) {
+        Future<Void> refreshed = this.refresh(cause, null);
+        if (refreshed == null) {
+            return Future.failedFuture(cause);
+        }
+        return refreshed.transform(ar -> Future.failedFuture(cause));
+    }
+
+    static boolean shouldRetry(Throwable cause) {
+        return cause instanceof CurpException && ((CurpException) cause).shouldRetry();
+    }
+
+    /**
+     * A command being proposed. The propose id is kept across retries so that the server could
+     * deduplicate them, unless the client id used by the propose has expired.
+     *
+     * <p>All the calls of the proposal are bound to its gRPC context, which is cancelled once the
+     * proposal is done or cancelled by the user, so the calls still in flight are released. The
+     * context carries the deadline of the proposal, the calls of the fast round, the slow round
+     * and the retries share it.
+     */
+    private final class Proposal<T> {
+        private final Command cmd;
+        private final boolean useFastPath;
+        private final BiFunction<CommandResponse, SyncResponse, T> convert;
+        @Nullable private final Promise<T> speculative;
+        private final Context.CancellableContext context;
+        private ClientLease.ClientId clientId;
+        private ProposeId id;
+
+        /**
+         * Create a new proposal
+         *
+         * @param cmd the command
+         * @param useFastPath whether to take the result of the fast round
+         * @param convert the result converter
+         * @param speculative if not null, the proposal completes after the command is synced,
+         *     and this promise is completed with the first result of any round
+         */
+        Proposal(
+                Command cmd,
+                boolean useFastPath,
+                BiFunction<CommandResponse, SyncResponse, T> convert,
+                @Nullable Promise<T> speculative) {
+            this.cmd = cmd;
+            this.useFastPath = useFastPath;
+            this.convert = convert;
+            this.speculative = speculative;
+            this.context = newCallContext();
+        }
+
+        /**
+         * Attempt to propose the command. If the attempt fails because of a stale client state,
+         * the command is re-issued right after the state is refreshed.
+         *
+         * @return the result of the attempt
+         */
+        Future<T> attempt() {
+            return this.attemptOnce()
+                    .recover(
+                            cause -> {
+                                Future<Void> refreshed = refresh(cause, this.clientId);
+                                if (refreshed == null) {
+                                    return Future.failedFuture(cause);
                                 }
-                                if (exception == null
-                                        || exception.priority().value() <= ex.priority().value()) {
-                                    exception = ex;
+                                return refreshed.transform(ar -> this.attemptOnce());
+                            });
+        }
+
+        private Future<T> attemptOnce() {
+            if (this.context.isCancelled()) {
+                return Future.failedFuture(new CancellationException("proposal cancelled"));
+            }
+            return ready()
+                    .compose(v -> clientLease.clientId())
+                    .compose(
+                            clientId -> {
+                                if (this.clientId != clientId) {
+                                    this.clientId = clientId;
+                                    this.id = clientId.nextProposeId();
                                 }
-                                if (i == 1) {
-                                    throw exception;
+                                if (this.speculative != null) {
+                                    return inContext(
+                                            this.context,
+                                            () ->
+                                                    proposeStaged(
+                                                            this.id,
+                                                            this.cmd,
+                                                            this.convert,
+                                                            this.speculative));
                                 }
-                                continue;
-                            }
-                            throw XlineException.toXlineException(e);
+                                return inContext(
+                                        this.context,
+                                        () ->
+                                                propose(
+                                                        this.id,
+                                                        this.cmd,
+                                                        this.useFastPath,
+                                                        this.convert));
+                            });
+        }
+
+        /**
+         * Cancel the calls still in flight once the proposal is decided
+         *
+         * @param cause the failure of the proposal, null if succeeded
+         */
+        void done(@Nullable Throwable cause) {
+            if (this.speculative != null && cause != null) {
+                this.speculative.tryFail(cause);
+            }
+            this.context.cancel(null);
+        }
+
+        /** Cancel the proposal */
+        void cancel() {
+            this.context.cancel(null);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.connectionManager().vertx().cancelTimer(this.refreshTimer);
+        this.clientLease.close();
+        this.memberChannels.close();
+    }
+
+    /**
+     * Fetch the cluster state from all members and feed the first response that knows the leader
+     * to {@link State#checkUpdate}. Concurrent calls are collapsed into a single fetching.
+     *
+     * @return a {@link Future} of the cluster state
+     */
+    Future<FetchClusterResponse> fetchCluster() {
+        while (true) {
+            Future<FetchClusterResponse> inflight = this.fetching.get();
+            if (inflight != null) {
+                return inflight;
+            }
+            Promise<FetchClusterResponse> promise = Promise.promise();
+            if (!this.fetching.compareAndSet(null, promise.future())) {
+                continue;
+            }
+            FetchClusterRequest request =
+                    FetchClusterRequest.newBuilder().setLinearizable(false).build();
+            Collection<MemberChannels.MemberChannel> members =
+                    this.state.view().members().values();
+            // the fetching is shared, detach it from the context of the trigger
+            Context.CancellableContext context =
+                    Context.ROOT.withDeadlineAfter(
+                            RETRY_TIMEOUT,
+                            TimeUnit.SECONDS,
+                            this.connectionManager().vertx().nettyEventLoopGroup());
+            List<Future<FetchClusterResponse>> futures =
+                    inContext(
+                            context,
+                            () ->
+                                    forEachServer(
+                                            members, member -> fetchCluster(member, request)));
+            firstWithLeader(futures).onComplete(promise);
+            promise.future().onComplete(ar -> context.cancel(null));
+            return promise.future()
+                    .onSuccess(this.state::checkUpdate)
+                    .onFailure(e -> logger().warn("fetch cluster failed, " + e))
+                    .onComplete(ar -> this.fetching.compareAndSet(promise.future(), null));
+        }
+    }
+
+    /**
+     * Take the first cluster state that knows the leader
+     *
+     * @param futures the fetching from each server
+     * @return a {@link Future} of the cluster state, failed with {@link CurpException} if none of
+     *     the servers knows the leader
+     */
+    private static Future<FetchClusterResponse> firstWithLeader(
+            List<Future<FetchClusterResponse>> futures) {
+        Promise<FetchClusterResponse> promise = Promise.promise();
+        CurpException unavailable =
+                new CurpException(
+                        CurpError.newBuilder().setRpcTransport(Empty.newBuilder().build()).build());
+        if (futures.isEmpty()) {
+            promise.fail(unavailable);
+        }
+        AtomicInteger pending = new AtomicInteger(futures.size());
+        for (Future<FetchClusterResponse> future : futures) {
+            future.onComplete(
+                    ar -> {
+                        if (ar.succeeded() && ar.result().hasLeaderId()) {
+                            promise.tryComplete(ar.result());
+                        } else if (pending.decrementAndGet() == 0) {
+                            promise.tryFail(unavailable);
                         }
+                    });
+        }
+        return promise.future();
+    }
+
+    private static Future<FetchClusterResponse> fetchCluster(
+            MemberChannels.MemberChannel member, FetchClusterRequest request) {
+        return member.stats().track(() -> member.protocol().fetchCluster(request));
+    }
+
+    <T> Future<T> propose(
+            ProposeId id,
+            Command cmd,
+            boolean useFastPath,
+            BiFunction<CommandResponse, SyncResponse, T> convert) {
+        ClusterView view = this.state.view();
+        if (!useFastPath) {
+            Context context = Context.current();
+            return this.fastRound(id, cmd, view)
+                    .transform(ar -> inContext(context, () -> this.slowRound(id, view)))
+                    .map(pair -> pair.apply(convert));
+        }
+        if (isReadOnly(cmd)) {
+            // read-only commands have no after sync result, the execution result of the fast
+            // round is enough. Fall back to the slow round only when the fast round fails.
+            Context context = Context.current();
+            return this.fastRound(id, cmd, view)
+                    .map(er -> convert.apply(er, null))
+                    .recover(
+                            cause -> {
+                                if (!(cause instanceof CurpException)
+                                        || ((CurpException) cause).shouldAbortSlowRound()) {
+                                    return Future.failedFuture(cause);
+                                }
+                                return inContext(context, () -> this.slowRound(id, view))
+                                        .map(pair -> pair.apply(convert));
+                            });
+        }
+        Future<T> fastRound = this.fastRound(id, cmd, view).map(er -> convert.apply(er, null));
+        Future<T> slowRound = this.slowRound(id, view).map(pair -> pair.apply(convert));
+        return race(fastRound, slowRound);
+    }
+
+    /**
+     * Propose the command and wait for it to be synced. The speculative result is completed as
+     * soon as the fast round succeeds, or together with the synced result otherwise.
+     *
+     * @param id The Proposal id
+     * @param cmd The command
+     * @param convert The result converter
+     * @param speculative The speculative result
+     * @return a {@link Future} of the synced result
+     */
+    <T> Future<T> proposeStaged(
+            ProposeId id,
+            Command cmd,
+            BiFunction<CommandResponse, SyncResponse, T> convert,
+            Promise<T> speculative) {
+        ClusterView view = this.state.view();
+        this.fastRound(id, cmd, view)
+                .map(er -> convert.apply(er, null))
+                .onSuccess(speculative::tryComplete);
+        return this.slowRound(id, view)
+                .map(pair -> pair.apply(convert))
+                .onSuccess(speculative::tryComplete);
+    }
+
+    /**
+     * Check if the command is read-only, including count-only and keys-only ranges.
+     *
+     * @param cmd the command
+     * @return true if the command does not modify the store
+     */
+    static boolean isReadOnly(Command cmd) {
+        return cmd.getRequest().hasRangeRequest();
+    }
+
+    /**
+     * Take the first successful result of the fast round and the slow round. If both rounds fail
+     * with {@link CurpException}s, the one with the highest priority will be returned. A failure
+     * of the fast round other than a {@link CurpException} is a failed vote, only the slow round
+     * fails the proposal with it.
+     *
+     * @param fastRound the fast round future
+     * @param slowRound the slow round future
+     * @return the arbitrated result
+     */
+    static <T> Future<T> race(Future<T> fastRound, Future<T> slowRound) {
+        Promise<T> promise = Promise.promise();
+        AtomicInteger pending = new AtomicInteger(2);
+        AtomicReference<CurpException> exception = new AtomicReference<>();
+        Handler<AsyncResult<T>> handler =
+                ar -> {
+                    if (ar.succeeded()) {
+                        promise.tryComplete(ar.result());
+                        return;
+                    }
+                    Throwable cause = ar.cause();
+                    if (!(cause instanceof CurpException)) {
+                        promise.tryFail(XlineException.toXlineException(cause));
+                        return;
+                    }
+                    CurpException ex = (CurpException) cause;
+                    if (ex.shouldAbortSlowRound()) {
+                        promise.tryFail(ex);
+                        return;
                     }
-                },
-                executor);
+                    exception.accumulateAndGet(
+                            ex,
+                            (prev, cur) ->
+                                    prev == null
+                                                    || prev.priority().value()
+                                                            <= cur.priority().value()
+                                            ? cur
+                                            : prev);
+                    if (pending.decrementAndGet() == 0) {
+                        promise.tryFail(exception.get());
+                    }
+                };
+        fastRound.recover(e -> Future.failedFuture(failedVote(e))).onComplete(handler);
+        slowRound.onComplete(handler);
+        return promise.future();
     }
 
-    Pair<CommandResponse, SyncResponse> slowRound(ProposeId id) {
+    /**
+     * Run slowRound
+     *
+     * @param id The Proposal id
+     * @param view The cluster view
+     * @return a {@link Future} of the execution result and the after sync result, failed with
+     *     {@link XlineException} when got serializing error or command execution error, {@link
+     *     CurpException} when got curp error
+     */
+    Future<Pair<CommandResponse, SyncResponse>> slowRound(ProposeId id, ClusterView view) {
         logger().info(String.format("Slow round start. Propose ID %s.", id));
         WaitSyncedRequest waitSyncReq =
                 WaitSyncedRequest.newBuilder()
                         .setProposeId(id)
-                        .setClusterVersion(this.state.getClusterVersion())
+                        .setClusterVersion(view.clusterVersion())
                         .build();
-        try {
-            WaitSyncedResponse resp =
-                    completable(
-                                    mapLeader(stub -> stub.waitSynced(waitSyncReq)),
-                                    res -> res,
-                                    CurpException::toCurpException)
-                            .get();
-            if (resp.getExeResult().hasError()) {
-                throw new XlineException(ExecuteError.parseFrom(resp.getExeResult().getError()));
-            }
-            if (resp.getAfterSyncResult().hasError()) {
-                throw new XlineException(
-                        ExecuteError.parseFrom(resp.getAfterSyncResult().getError()));
-            }
-            CommandResponse er = CommandResponse.parseFrom(resp.getExeResult().getOk());
-            SyncResponse asr = SyncResponse.parseFrom(resp.getAfterSyncResult().getOk());
-            return new Pair<>(er, asr);
-        } catch (InterruptedException | InvalidProtocolBufferException e) {
-            throw XlineException.toXlineException(e);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (!(cause instanceof CurpException)) {
-                throw XlineException.toXlineException(cause);
-            }
-            throw (CurpException) cause;
+        return mapLeader(view, leader -> this.hedgedWaitSynced(leader, waitSyncReq))
+                .transform(
+                        ar -> {
+                            if (ar.failed()) {
+                                return Future.failedFuture(
+                                        CurpException.fromCallFailure(ar.cause()));
+                            }
+                            WaitSyncedResponse resp = ar.result();
+                            try {
+                                if (resp.getExeResult().hasError()) {
+                                    return Future.failedFuture(
+                                            new XlineException(
+                                                    ExecuteError.parseFrom(
+                                                            resp.getExeResult().getError())));
+                                }
+                                if (resp.getAfterSyncResult().hasError()) {
+                                    return Future.failedFuture(
+                                            new XlineException(
+                                                    ExecuteError.parseFrom(
+                                                            resp.getAfterSyncResult()
+                                                                    .getError())));
+                                }
+                                CommandResponse er =
+                                        CommandResponse.parseFrom(resp.getExeResult().getOk());
+                                SyncResponse asr =
+                                        SyncResponse.parseFrom(
+                                                resp.getAfterSyncResult().getOk());
+                                return Future.succeededFuture(new Pair<>(er, asr));
+                            } catch (InvalidProtocolBufferException e) {
+                                return Future.failedFuture(XlineException.toXlineException(e));
+                            }
+                        });
+    }
+
+    private static Future<WaitSyncedResponse> waitSynced(
+            MemberChannels.MemberChannel member, WaitSyncedRequest request) {
+        return member.stats().trackSynced(() -> member.protocol().waitSynced(request));
+    }
+
+    /**
+     * Wait for the command to be synced on the leader. If hedging is enabled and the leader does
+     * not answer within the percentile of its waitSynced latency, fetch the cluster and re-issue
+     * the call to the new leader, the first successful answer is taken. The call fails once the
+     * call to the original leader fails, the retry will find the new leader anyway.
+     *
+     * @param leader the leader
+     * @param request the waitSynced request
+     * @return a {@link Future} of the {@link WaitSyncedResponse}
+     */
+    private Future<WaitSyncedResponse> hedgedWaitSynced(
+            MemberChannels.MemberChannel leader, WaitSyncedRequest request) {
+        Future<WaitSyncedResponse> primary = waitSynced(leader, request);
+        long delay =
+                hedgeDelay(
+                        leader.stats().syncLatency(),
+                        this.connectionManager().builder().hedgingPercentile());
+        if (delay <= 0) {
+            return primary;
         }
+        Promise<WaitSyncedResponse> promise = Promise.promise();
+        Context context = Context.current();
+        long timer =
+                this.connectionManager()
+                        .vertx()
+                        .setTimer(delay, t -> this.hedge(leader, request, context, promise));
+        primary.onComplete(
+                ar -> {
+                    this.connectionManager().vertx().cancelTimer(timer);
+                    if (ar.succeeded()) {
+                        promise.tryComplete(ar.result());
+                    } else {
+                        promise.tryFail(ar.cause());
+                    }
+                });
+        return promise.future();
+    }
+
+    /**
+     * The delay before hedging a waitSynced call
+     *
+     * @param samples the waitSynced latency samples of the leader
+     * @param percentile the hedging percentile, null if hedging is disabled
+     * @return the delay in milliseconds, 0 if the call should not be hedged
+     */
+    static long hedgeDelay(LatencySamples samples, @Nullable Double percentile) {
+        if (percentile == null) {
+            return 0;
+        }
+        double budget = samples.percentile(percentile);
+        return budget <= 0 ? 0 : Math.max(1, (long) budget);
+    }
+
+    private void hedge(
+            MemberChannels.MemberChannel leader,
+            WaitSyncedRequest request,
+            Context context,
+            Promise<WaitSyncedResponse> promise) {
+        this.fetchCluster()
+                .onSuccess(
+                        res -> {
+                            MemberChannels.MemberChannel candidate = this.state.view().leader();
+                            if (promise.future().isComplete()
+                                    || candidate == null
+                                    || candidate == leader) {
+                                return;
+                            }
+                            logger().info("hedge waitSynced to the new leader " + candidate.id());
+                            inContext(context, () -> waitSynced(candidate, request))
+                                    .onSuccess(promise::tryComplete);
+                        });
     }
 
     /**
@@ -137,276 +837,425 @@ class ProtocolClientImpl extends Impl implements ProtocolClient {
      *
      * @param id The Proposal id
      * @param cmd The command
-     * @return {@link CommandResponse}
-     * @throws {@link XlineException} when got serializing error, command execution error or
-     *     unexpected behavior, {@link CurpException} when got curp error
+     * @param view The cluster view
+     * @return a {@link Future} of {@link CommandResponse}, failed with {@link XlineException} when
+     *     got serializing error, command execution error or unexpected behavior, {@link
+     *     CurpException} when got curp error
      */
-    CommandResponse fastRound(ProposeId id, Command cmd) {
+    Future<CommandResponse> fastRound(ProposeId id, Command cmd, ClusterView view) {
         logger().info(String.format("Fast round start. Propose ID %s.", id));
         ProposeRequest propReq =
                 ProposeRequest.newBuilder()
                         .setCommand(cmd.toByteString())
                         .setProposeId(id)
-                        .setClusterVersion(this.state.getClusterVersion())
+                        .setClusterVersion(view.clusterVersion())
                         .build();
 
-        Collection<VertxProtocolGrpc.ProtocolVertxStub> stubs = this.state.getStubs().values();
-        int okCnt = 0;
-        int superQuorum = this.superQuorum(stubs.size());
-        CommandResponse exeRes = null;
-        CurpException exception = null;
-
-        CompletionService<CommandResponse> completionService =
-                forEachServer(
-                        stubs,
-                        stub -> {
-                            CmdResult cmdResult =
-                                    completable(
-                                                    stub.propose(propReq),
-                                                    ProposeResponse::getResult,
-                                                    CurpException::toCurpException)
-                                            .get();
-                            if (cmdResult.hasError()) {
-                                ExecuteError error = ExecuteError.parseFrom(cmdResult.getError());
-                                throw new XlineException(error);
+        List<MemberChannels.MemberChannel> members = healthy(view);
+        // cancel the calls still in flight once the fast round succeeds, the leader has answered
+        // by then. The calls are kept on failure, the slow round needs the leader to get it.
+        Context.CancellableContext context = Context.current().withCancellation();
+        List<Future<CommandResponse>> futures =
+                inContext(
+                        context,
+                        () -> forEachServer(members, member -> this.propose(member, propReq)));
+        if (members.size() < view.superQuorum()) {
+            // the super quorum is impossible with the healthy members, go to the slow round
+            return Future.failedFuture(
+                    new CurpException(
+                            CurpError.newBuilder()
+                                    .setRpcTransport(Empty.newBuilder().build())
+                                    .build()));
+        }
+        FastRound round = new FastRound(members.size(), view.superQuorum());
+        for (Future<CommandResponse> future : futures) {
+            future.onComplete(round::onResponse);
+        }
+        return round.future().onSuccess(er -> context.cancel(null));
+    }
+
+    /**
+     * Get the members to propose to, skipping the ones whose circuit breaker is open. The leader is
+     * always included since the slow round depends on it.
+     *
+     * @param view the cluster view
+     * @return the members
+     */
+    private static List<MemberChannels.MemberChannel> healthy(ClusterView view) {
+        List<MemberChannels.MemberChannel> members = new ArrayList<>(view.members().size());
+        for (MemberChannels.MemberChannel member : view.members().values()) {
+            if (member == view.leader() || member.stats().tryAcquire()) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Send the propose request to one server
+     *
+     * @param member the server
+     * @param propReq the propose request
+     * @return a {@link Future} of the execution result, the result may be null if the server is
+     *     not the leader
+     */
+    private Future<CommandResponse> propose(
+            MemberChannels.MemberChannel member, ProposeRequest propReq) {
+        return member.stats()
+                .track(() -> member.protocol().propose(propReq))
+                .transform(
+                        ar -> {
+                            if (ar.failed()) {
+                                return Future.failedFuture(
+                                        CurpException.fromCallFailure(ar.cause()));
                             }
-                            if (cmdResult.hasOk()) {
-                                return CommandResponse.parseFrom(cmdResult.getOk());
+                            CmdResult cmdResult = ar.result().getResult();
+                            try {
+                                if (cmdResult.hasError()) {
+                                    ExecuteError error = ExecuteError.parseFrom(cmdResult.getError());
+                                    return Future.failedFuture(new XlineException(error));
+                                }
+                                if (cmdResult.hasOk()) {
+                                    return Future.succeededFuture(
+                                            CommandResponse.parseFrom(cmdResult.getOk()));
+                                }
+                                return Future.succeededFuture();
+                            } catch (InvalidProtocolBufferException e) {
+                                return Future.failedFuture(XlineException.toXlineException(e));
                             }
-                            return null;
                         });
+    }
 
-        for (int i = 0; i < stubs.size(); i++) {
-            try {
-                CommandResponse resp = completionService.take().get();
-                if (resp != null) {
-                    exeRes = resp;
-                }
-                okCnt++;
-                if (okCnt >= superQuorum && exeRes != null) {
-                    return exeRes;
+    /**
+     * The tally of a fast round, it is driven by the responses of each server and resolves as soon
+     * as the outcome is determined, either way.
+     */
+    static final class FastRound {
+        private final Promise<CommandResponse> promise = Promise.promise();
+        private final int size;
+        private final int superQuorum;
+        private int okCnt;
+        private int doneCnt;
+        private CommandResponse exeRes;
+        private CurpException exception;
+
+        FastRound(int size, int superQuorum) {
+            this.size = size;
+            this.superQuorum = superQuorum;
+        }
+
+        Future<CommandResponse> future() {
+            return this.promise.future();
+        }
+
+        synchronized void onResponse(AsyncResult<CommandResponse> ar) {
+            if (this.promise.future().isComplete()) {
+                return;
+            }
+            this.doneCnt++;
+            if (ar.succeeded()) {
+                if (ar.result() != null) {
+                    this.exeRes = ar.result();
                 }
-            } catch (InterruptedException e) {
-                // unexpected exception
-                throw XlineException.toXlineException(e);
-            } catch (ExecutionException e) {
-                Throwable cause = e.getCause();
-                if (!(cause instanceof CurpException)) {
-                    throw XlineException.toXlineException(cause);
+                this.okCnt++;
+                if (this.okCnt >= this.superQuorum && this.exeRes != null) {
+                    this.promise.complete(this.exeRes);
+                    return;
                 }
-                CurpException ex = (CurpException) cause;
+            } else {
+                CurpException ex = failedVote(ar.cause());
                 if (ex.shouldAbortFastRound()) {
-                    throw ex;
+                    this.promise.fail(ex);
+                    return;
+                }
+                if (this.exception == null
+                        || this.exception.priority().value() <= ex.priority().value()) {
+                    this.exception = ex;
                 }
-                if (exception == null || exception.priority().value() <= ex.priority().value()) {
-                    exception = ex;
+                if (this.okCnt + this.size - this.doneCnt < this.superQuorum) {
+                    // the super quorum is unreachable even if all the others succeed
+                    this.promise.fail(this.exception);
+                    return;
                 }
             }
+            if (this.doneCnt < this.size) {
+                return;
+            }
+            if (this.exception != null) {
+                this.promise.fail(this.exception);
+                return;
+            }
+            // We will at least send the request to the leader if no `WrongClusterVersion`
+            // returned. If no errors occur, the leader should return the ER
+            // If it is because the super quorum has not been reached, an error will definitely
+            // occur. Otherwise, there is no leader in the cluster state currently, return wrong
+            // cluster version and attempt to retrieve the cluster state again.
+            this.promise.fail(
+                    new CurpException(
+                            CurpError.newBuilder()
+                                    .setWrongClusterVersion(Empty.newBuilder().build())
+                                    .build()));
         }
-        if (exception != null) {
-            throw exception;
-        }
-        // We will at least send the request to the leader if no `WrongClusterVersion` returned.
-        // If no errors occur, the leader should return the ER
-        // If it is because the super quorum has not been reached, an error will definitely occur.
-        // Otherwise, there is no leader in the cluster state currently, return wrong cluster
-        // version
-        // and attempt to retrieve the cluster state again.
-        throw new CurpException(
-                CurpError.newBuilder().setWrongClusterVersion(Empty.newBuilder().build()).build());
     }
 
-    <T> CompletionService<T> forEachServer(
-            Collection<VertxProtocolGrpc.ProtocolVertxStub> stubs,
-            Invoke<VertxProtocolGrpc.ProtocolVertxStub, T> task) {
-        CompletionService<T> completionService =
-                new ExecutorCompletionService<>(this.connectionManager().getExecutorService());
-        for (VertxProtocolGrpc.ProtocolVertxStub stub : stubs) {
-            completionService.submit(() -> task.call(stub));
+    /**
+     * Get the error of a failed vote in the fast round. A failure of one server other than a {@link
+     * CurpException}, e.g. {@code INTERNAL} or {@code RESOURCE_EXHAUSTED}, does not decide the
+     * proposal, it counts as a failed vote of low priority like a transport failure and the slow
+     * round decides.
+     *
+     * @param cause the failure of the server
+     * @return the {@link CurpException}
+     */
+    static CurpException failedVote(Throwable cause) {
+        if (cause instanceof CurpException) {
+            return (CurpException) cause;
         }
-        return completionService;
+        return new CurpException(
+                CurpError.newBuilder().setRpcTransport(Empty.newBuilder().build()).build());
     }
 
-    <T> Future<T> mapLeader(Function<VertxProtocolGrpc.ProtocolVertxStub, Future<T>> task) {
-        VertxProtocolGrpc.ProtocolVertxStub leaderStub = this.state.getLeaderStub();
-        if (leaderStub == null) {
-            // choose a random leader, it will return redirect error if leader is wrong
-            // TODO: fetch cluster here.
-            leaderStub =
-                    this.state.stubs.values()
-                            .toArray(VertxProtocolGrpc.ProtocolVertxStub[]::new)[0];
+    <T> List<Future<T>> forEachServer(
+            Collection<MemberChannels.MemberChannel> members,
+            Function<MemberChannels.MemberChannel, Future<T>> task) {
+        List<Future<T>> futures = new ArrayList<>(members.size());
+        for (MemberChannels.MemberChannel member : members) {
+            futures.add(task.apply(member));
         }
-        return task.apply(leaderStub);
+        return futures;
     }
 
-    int superQuorum(int size) {
-        int faultTolerance = size - quorum(size);
-        return faultTolerance + recoverQuorum(size);
+    <T> Future<T> mapLeader(
+            ClusterView view, Function<MemberChannels.MemberChannel, Future<T>> task) {
+        MemberChannels.MemberChannel leader = view.leader();
+        if (leader != null) {
+            return task.apply(leader);
+        }
+        Context context = Context.current();
+        return this.fetchCluster()
+                .transform(ar -> inContext(context, () -> this.leader().compose(task)));
     }
 
-    int quorum(int size) {
-        return size / 2 + 1;
+    /**
+     * Get the leader, or any member if the leader is unknown, which will return a redirect error
+     * if it is not the leader
+     *
+     * @return a {@link Future} of the member, failed with {@code RpcTransport} if no member is
+     *     known yet
+     */
+    Future<MemberChannels.MemberChannel> leader() {
+        ClusterView view = this.state.view();
+        MemberChannels.MemberChannel leader = view.leader();
+        if (leader != null) {
+            return Future.succeededFuture(leader);
+        }
+        this.fetchCluster();
+        Iterator<MemberChannels.MemberChannel> members = view.members().values().iterator();
+        if (!members.hasNext()) {
+            return Future.failedFuture(
+                    new CurpException(
+                            CurpError.newBuilder()
+                                    .setRpcTransport(Empty.newBuilder().build())
+                                    .build()));
+        }
+        return Future.succeededFuture(members.next());
     }
 
-    int recoverQuorum(int size) {
-        return quorum(size) / 2 + 1;
-    }
+    /** The interval in milliseconds of refreshing the cluster state in the background */
+    static final long CLUSTER_REFRESH_INTERVAL = 10_000;
 
+    /** The timeout in seconds of fetching the cluster state */
     static final int RETRY_TIMEOUT = 3;
+
+    /** The max retries of fetching the cluster state from the seeds */
     static final int RETRY_LIMIT = 5;
 
-    // TODO: Need to be refactored within retry policy...
-    State getInitState() {
-        ManagedChannel initChannel = this.connectionManager().getInitChannel();
-        VertxProtocolGrpc.ProtocolVertxStub initStub = VertxProtocolGrpc.newVertxStub(initChannel);
-        FetchClusterResponse response = null;
-        FetchClusterRequest request =
-                FetchClusterRequest.newBuilder().setLinearizable(false).build();
-        int retries = -1;
-        do {
-            retries++;
-            if (retries > RETRY_LIMIT) {
-                throw new RuntimeException("connection failed");
+    /** The interval in milliseconds between two rounds of fetching from the seeds */
+    static final long BOOTSTRAP_RETRY_INTERVAL = 500;
+
+    /**
+     * Get the bootstrap of the cluster state. The bootstrap starts with the client, and is
+     * restarted by the next call if it has failed.
+     *
+     * @return a {@link Future} completes once the cluster state is known
+     */
+    Future<Void> ready() {
+        while (true) {
+            Future<Void> current = this.bootstrapping.get();
+            if (current != null && !current.failed()) {
+                return current;
             }
-            try {
-                response =
-                        completable(initStub.fetchCluster(request))
-                                .get(RETRY_TIMEOUT, TimeUnit.SECONDS);
-            } catch (Exception e) {
-                logger().warn("fetch cluster failed, " + e);
+            Promise<Void> promise = Promise.promise();
+            if (this.bootstrapping.compareAndSet(current, promise.future())) {
+                Context.ROOT.run(() -> this.bootstrap().onComplete(promise));
+                return promise.future();
             }
-        } while (response == null || !response.hasLeaderId());
-
-        HashMap<Long, VertxProtocolGrpc.ProtocolVertxStub> stubs = new HashMap<>();
-        for (Member member : response.getMembersList()) {
-            String target =
-                    member.getAddrsList().stream()
-                            .map(
-                                    addr -> {
-                                        if (!addr.startsWith("http")) {
-                                            return URI.create("http://" + addr);
-                                        }
-                                        return URI.create(addr);
-                                    })
-                            .map(ProtocolClientImpl::getEndpoint)
-                            .distinct()
-                            .collect(Collectors.joining(","));
-            String authority = connectionManager().builder().authority();
-            String ips =
-                    String.format(
-                            "%s://%s/%s",
-                            IPNameResolver.SCHEME, authority != null ? authority : "", target);
-
-            ManagedChannel channel = connectionManager().defaultChannelBuilder(ips).build();
-            VertxProtocolGrpc.ProtocolVertxStub stub = VertxProtocolGrpc.newVertxStub(channel);
-            stubs.put(member.getId(), stub);
-        }
-
-        return new State(
-                response.getLeaderId(), response.getTerm(), response.getClusterVersion(), stubs);
-    }
-
-    private class State {
-        private final ReadWriteLock lock;
-        private long leaderId;
-        private long term;
-        private long clusterVersion;
-        private HashMap<Long, VertxProtocolGrpc.ProtocolVertxStub> stubs;
-
-        State(
-                long leaderId,
-                long term,
-                long clusterVersion,
-                HashMap<Long, VertxProtocolGrpc.ProtocolVertxStub> stubs) {
-            this.lock = new ReentrantReadWriteLock();
-            this.leaderId = leaderId;
-            this.term = term;
-            this.clusterVersion = clusterVersion;
-            this.stubs = stubs;
-        }
-
-        long getClusterVersion() {
-            this.lock.readLock().lock();
-            long version = this.clusterVersion;
-            this.lock.readLock().unlock();
-            return version;
-        }
-
-        HashMap<Long, VertxProtocolGrpc.ProtocolVertxStub> getStubs() {
-            this.lock.readLock().lock();
-            HashMap<Long, VertxProtocolGrpc.ProtocolVertxStub> stubs = this.stubs;
-            this.lock.readLock().unlock();
-            return stubs;
-        }
-
-        long getLeader() {
-            this.lock.readLock().lock();
-            long res = this.leaderId;
-            this.lock.readLock().unlock();
-            return res;
+        }
+    }
+
+    /**
+     * Bootstrap the cluster state from the snapshot if there is one, and validate it in the
+     * background. Otherwise, fetch it from the seeds.
+     */
+    private Future<Void> bootstrap() {
+        Future<FetchClusterResponse> cached =
+                this.snapshot != null ? this.snapshot.load() : Future.succeededFuture();
+        return cached.compose(
+                        res -> {
+                            if (res != null
+                                    && res.hasLeaderId()
+                                    && !res.getMembersList().isEmpty()) {
+                                logger().info("bootstrap from the cluster snapshot");
+                                this.state.checkUpdate(res);
+                                // the members may be gone, fall back to the seeds
+                                this.fetchCluster()
+                                        .onFailure(
+                                                e ->
+                                                        this.fetchSeeds()
+                                                                .onSuccess(
+                                                                        this.state::checkUpdate));
+                                return Future.succeededFuture();
+                            }
+                            return this.fetchSeeds().onSuccess(this.state::checkUpdate);
+                        })
+                .onSuccess(res -> this.clientLease.start())
+                .mapEmpty();
+    }
+
+    /**
+     * Fetch the cluster state from all the seeds in parallel, the first response that knows the
+     * leader is taken, a dead seed does not delay the bootstrap.
+     *
+     * @return a {@link Future} of the cluster state
+     */
+    private Future<FetchClusterResponse> fetchSeeds() {
+        List<ManagedChannel> seeds = new ArrayList<>();
+        for (String target : this.connectionManager().seedTargets()) {
+            seeds.add(this.connectionManager().defaultChannelBuilder(target).build());
+        }
+        FetchClusterRequest request =
+                FetchClusterRequest.newBuilder().setLinearizable(false).build();
+        Promise<FetchClusterResponse> promise = Promise.promise();
+        this.fetchSeeds(seeds, request, 0, promise);
+        return promise.future().onComplete(ar -> seeds.forEach(ManagedChannel::shutdown));
+    }
+
+    private void fetchSeeds(
+            List<ManagedChannel> seeds,
+            FetchClusterRequest request,
+            int retries,
+            Promise<FetchClusterResponse> promise) {
+        List<Future<FetchClusterResponse>> futures = new ArrayList<>(seeds.size());
+        for (ManagedChannel seed : seeds) {
+            futures.add(
+                    VertxProtocolGrpc.newVertxStub(seed)
+                            .withDeadlineAfter(RETRY_TIMEOUT, TimeUnit.SECONDS)
+                            .fetchCluster(request));
+        }
+        firstWithLeader(futures)
+                .onComplete(
+                        ar -> {
+                            if (ar.succeeded()) {
+                                promise.complete(ar.result());
+                                return;
+                            }
+                            logger().warn("fetch cluster from the seeds failed, " + ar.cause());
+                            if (retries >= RETRY_LIMIT) {
+                                promise.fail(
+                                        XlineException.toXlineException(
+                                                new ConnectException(
+                                                        "connection failed, seeds: "
+                                                                + this.connectionManager()
+                                                                        .seedTargets())));
+                                return;
+                            }
+                            this.connectionManager()
+                                    .vertx()
+                                    .setTimer(
+                                            BOOTSTRAP_RETRY_INTERVAL,
+                                            t ->
+                                                    this.fetchSeeds(
+                                                            seeds, request, retries + 1, promise));
+                        });
+    }
+
+    /**
+     * The holder of the {@link ClusterView}. Readers load the current view without any lock,
+     * updates are serialized and publish a new view.
+     */
+    private final class State {
+        private volatile ClusterView view;
+
+        State(ClusterView view) {
+            this.view = view;
+        }
+
+        ClusterView view() {
+            return this.view;
         }
 
         /**
-         * Get leader stub
+         * Follow the leader hint of a redirect
          *
-         * @return Leader stub or null if there are some disjoints in local stubs.
+         * @param leaderId the new leader id
+         * @param term the term of the new leader
+         * @return true if the leader is known by the local stubs and has been updated
          */
-        @Nullable
-        VertxProtocolGrpc.ProtocolVertxStub getLeaderStub() {
-            this.lock.readLock().lock();
-            VertxProtocolGrpc.ProtocolVertxStub stub = this.stubs.get(this.leaderId);
-            this.lock.readLock().unlock();
-            return stub;
-        }
-
-        void checkUpdate(FetchClusterResponse res) {
-            try {
-                this.lock.writeLock().lock();
-                if (res.getTerm() < this.term) {
-                    return;
-                }
-                if (res.hasLeaderId() && this.term < res.getTerm()) {
-                    this.term = res.getTerm();
-                    this.leaderId = res.getLeaderId();
-                    logger().info("client term updates to " + this.term);
-                    logger().info("client leader id updates to " + this.leaderId);
-                }
-                if (res.getClusterVersion() == this.clusterVersion) {
-                    return;
-                }
-                this.clusterVersion = res.getClusterVersion();
-                HashMap<Long, VertxProtocolGrpc.ProtocolVertxStub> stubs = new HashMap<>();
-                for (Member member : res.getMembersList()) {
-                    String target =
-                            member.getAddrsList().stream()
-                                    .map(URI::create)
-                                    .map(ProtocolClientImpl::getEndpoint)
-                                    .distinct()
-                                    .collect(Collectors.joining(","));
-                    String authority = connectionManager().builder().authority();
-                    String ips =
-                            String.format(
-                                    "%s://%s/%s",
-                                    IPNameResolver.SCHEME,
-                                    authority != null ? authority : "",
-                                    target);
-
-                    ManagedChannel channel = connectionManager().defaultChannelBuilder(ips).build();
-                    VertxProtocolGrpc.ProtocolVertxStub stub =
-                            VertxProtocolGrpc.newVertxStub(channel);
-                    stubs.put(member.getId(), stub);
-                }
-                // TODO: do NOT drop the old stubs, instead modify the stubs (use ConcurrentHashMap)
-                if (!stubs.isEmpty()) {
-                    this.stubs = stubs;
-                }
-            } finally {
-                this.lock.writeLock().unlock();
+        synchronized boolean updateLeader(long leaderId, long term) {
+            ClusterView view = this.view;
+            if (term < view.term() || !view.members().containsKey(leaderId)) {
+                return false;
+            }
+            if (view.term() < term || view.leaderId() != leaderId) {
+                this.view = view.withLeader(leaderId, term);
+                logger().info("client leader id updates to " + leaderId);
+            }
+            return true;
+        }
+
+        synchronized void checkUpdate(FetchClusterResponse res) {
+            if (res.getMembersList().isEmpty()) {
+                // e.g. a member still joining the cluster, it would leave the client with no
+                // member to talk to
+                logger().warn("ignore the cluster state without members");
+                return;
+            }
+            ClusterView view = this.view;
+            if (view.members().isEmpty()) {
+                // the first cluster state since the client starts
+                this.view =
+                        new ClusterView(
+                                res.getLeaderId(),
+                                res.getTerm(),
+                                res.getClusterVersion(),
+                                memberChannels.update(res.getMembersList()));
+                this.persist(res);
+                return;
+            }
+            if (res.getTerm() < view.term()) {
+                return;
+            }
+            if (res.hasLeaderId() && view.term() < res.getTerm()) {
+                view = view.withLeader(res.getLeaderId(), res.getTerm());
+                logger().info("client term updates to " + view.term());
+                logger().info("client leader id updates to " + view.leaderId());
+            }
+            if (res.getClusterVersion() != view.clusterVersion()) {
+                view =
+                        view.withMembers(
+                                res.getClusterVersion(),
+                                memberChannels.update(res.getMembersList()));
+            }
+            if (view != this.view) {
+                this.view = view;
+                this.persist(res);
             }
         }
-    }
 
-    static String getEndpoint(URI uri) {
-        return uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+        private void persist(FetchClusterResponse res) {
+            if (snapshot != null) {
+                snapshot.save(res);
+            }
+        }
     }
 }
@@ -0,0 +1,167 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.KV;
+import cloud.xline.jxline.ProposeResult;
+import cloud.xline.jxline.ProtocolClient;
+import cloud.xline.jxline.ReadConsistency;
+import cloud.xline.jxline.Session;
+import cloud.xline.jxline.Txn;
+import cloud.xline.jxline.kv.*;
+import cloud.xline.jxline.support.Requests;
+import com.xline.protobuf.Command;
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.Response;
+import io.etcd.jetcd.options.CompactOption;
+import io.etcd.jetcd.options.DeleteOption;
+import io.etcd.jetcd.options.GetOption;
+import io.etcd.jetcd.options.PutOption;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/** Session implementation, tracks the highest revision seen on top of a {@link KV}. */
+final class SessionImpl extends Impl implements Session {
+
+    private final ProtocolClient protocolClient;
+
+    private final KV kv;
+
+    private final ByteSequence namespace;
+
+    private final AtomicLong revision;
+
+    @Nullable private final Duration deadline;
+
+    SessionImpl(ProtocolClient protocolClient, KVImpl kv, ClientConnectionManager manager) {
+        this(protocolClient, kv, manager, kv.namespace(), new AtomicLong(), null);
+    }
+
+    private SessionImpl(
+            ProtocolClient protocolClient,
+            KV kv,
+            ClientConnectionManager manager,
+            ByteSequence namespace,
+            AtomicLong revision,
+            @Nullable Duration deadline) {
+        super(manager);
+        this.protocolClient = protocolClient;
+        this.kv = kv;
+        this.namespace = namespace;
+        this.revision = revision;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public long revision() {
+        return this.revision.get();
+    }
+
+    private <R extends Response> CompletableFuture<R> observe(CompletableFuture<R> future) {
+        return future.thenApply(
+                resp -> {
+                    this.revision.accumulateAndGet(resp.getHeader().getRevision(), Math::max);
+                    return resp;
+                });
+    }
+
+    private <R extends Response> ProposeResult<R> observe(ProposeResult<R> result) {
+        // return the observed future, so that the dependents of the caller run after the revision
+        // is recorded, e.g. a read of the session right after the synced write
+        return new ProposeResult<>(result.speculative(), observe(result.synced()));
+    }
+
+    @Override
+    public CompletableFuture<PutResponse> put(ByteSequence key, ByteSequence value) {
+        return this.put(key, value, PutOption.DEFAULT);
+    }
+
+    @Override
+    public CompletableFuture<PutResponse> put(
+            ByteSequence key, ByteSequence value, PutOption option) {
+        return observe(this.kv.putStaged(key, value, option).synced());
+    }
+
+    @Override
+    public ProposeResult<PutResponse> putStaged(
+            ByteSequence key, ByteSequence value, PutOption option) {
+        return observe(this.kv.putStaged(key, value, option));
+    }
+
+    @Override
+    public CompletableFuture<GetResponse> get(ByteSequence key) {
+        requireNonNull(key, "key should not be null");
+        return get(key, GetOption.DEFAULT);
+    }
+
+    @Override
+    public CompletableFuture<GetResponse> get(ByteSequence key, GetOption option) {
+        requireNonNull(key, "key should not be null");
+        requireNonNull(option, "option should not be null");
+        Command cmd = Requests.mapRangeRequest(key, option, this.namespace);
+        return observe(
+                withinDeadline(
+                        this.deadline,
+                        () ->
+                                this.protocolClient
+                                        .readAtLeast(cmd, this.revision.get())
+                                        .thenApply(
+                                                resp -> new GetResponse(resp, this.namespace))));
+    }
+
+    @Override
+    public CompletableFuture<GetResponse> get(
+            ByteSequence key, GetOption option, ReadConsistency consistency) {
+        requireNonNull(consistency, "consistency should not be null");
+        if (consistency == ReadConsistency.SERIALIZABLE) {
+            return get(key, option);
+        }
+        return observe(this.kv.get(key, option, consistency));
+    }
+
+    @Override
+    public CompletableFuture<DeleteResponse> delete(ByteSequence key) {
+        requireNonNull(key, "key should not be null");
+        return delete(key, DeleteOption.DEFAULT);
+    }
+
+    @Override
+    public CompletableFuture<DeleteResponse> delete(ByteSequence key, DeleteOption option) {
+        return observe(this.kv.deleteStaged(key, option).synced());
+    }
+
+    @Override
+    public ProposeResult<DeleteResponse> deleteStaged(ByteSequence key, DeleteOption option) {
+        return observe(this.kv.deleteStaged(key, option));
+    }
+
+    @Override
+    public CompletableFuture<CompactResponse> compact(long rev) {
+        return this.kv.compact(rev);
+    }
+
+    @Override
+    public CompletableFuture<CompactResponse> compact(long rev, CompactOption option) {
+        return this.kv.compact(rev, option);
+    }
+
+    @Override
+    public Txn txn() {
+        return this.kv.txn();
+    }
+
+    @Override
+    public Session withDeadline(Duration timeout) {
+        requireNonNull(timeout, "timeout should not be null");
+        return new SessionImpl(
+                this.protocolClient,
+                this.kv.withDeadline(timeout),
+                this.connectionManager(),
+                this.namespace,
+                this.revision,
+                timeout);
+    }
+}
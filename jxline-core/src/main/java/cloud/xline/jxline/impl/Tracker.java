@@ -0,0 +1,27 @@
+package cloud.xline.jxline.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the sequence numbers of one client id.
+ *
+ * <p>The completed sequence numbers are not tracked, since the propose request of the bundled
+ * curp protocol has no field to report the first incomplete one to the server.
+ */
+final class Tracker {
+    /** The next sequence number to allocate. */
+    private final AtomicLong nextSeqNum;
+
+    Tracker() {
+        this.nextSeqNum = new AtomicLong();
+    }
+
+    /**
+     * Allocate a new sequence number, it only costs an atomic increment.
+     *
+     * @return the sequence number
+     */
+    long nextSeqNum() {
+        return this.nextSeqNum.getAndIncrement();
+    }
+}
@@ -0,0 +1,48 @@
+package cloud.xline.jxline.impl;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoop;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.core.impl.VertxInternal;
+
+import java.util.function.Function;
+
+/**
+ * The uses of the internal Vert.x API, written against Vert.x 4.5.1. The internal API may change
+ * in any release, so it is only used here, and this class should be checked when upgrading.
+ */
+final class VertxInternals {
+    private VertxInternals() {}
+
+    /**
+     * Get the netty channel factory of the transport of the runtime, so that the channels use the
+     * native transport when Vert.x does.
+     *
+     * @param vertx the runtime
+     * @return the channel factory
+     */
+    static ChannelFactory<? extends Channel> channelFactory(Vertx vertx) {
+        return ((VertxInternal) vertx).transport().channelFactory(false);
+    }
+
+    /**
+     * Run the task on a new context bound to the next event loop of the runtime. The task runs
+     * synchronously on the calling thread, with the new context as the current one, so that the
+     * Vert.x stubs created by the task complete their calls on that event loop.
+     *
+     * @param vertx the runtime
+     * @param task the task, given the event loop of the context
+     * @return the result of the task
+     */
+    static <T> T onNewEventLoop(Vertx vertx, Function<EventLoop, T> task) {
+        ContextInternal context = ((VertxInternal) vertx).createEventLoopContext();
+        ContextInternal previous = context.beginDispatch();
+        try {
+            return task.apply(context.nettyEventLoop());
+        } finally {
+            context.endDispatch(previous);
+        }
+    }
+}
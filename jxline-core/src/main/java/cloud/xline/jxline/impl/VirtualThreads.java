@@ -0,0 +1,24 @@
+package cloud.xline.jxline.impl;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The factory of the virtual-thread executor. This is the variant for Java 11, where virtual
+ * threads do not exist, the multi-release jar ships the Java 21 variant in {@code
+ * META-INF/versions/21}.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * Create an executor running each task in a new virtual thread
+     *
+     * @return the executor, null if virtual threads are not supported
+     */
+    @Nullable
+    static ExecutorService newThreadPerTaskExecutor() {
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package cloud.xline.jxline.support;
+
+import cloud.xline.jxline.RetryPolicy;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RetryPolicy} with exponential backoff and jitter. The n-th retry waits a random duration
+ * between the half and the whole of {@code min(maxDelay, delay * 2^(n-1))}.
+ */
+public final class ExponentialBackoff implements RetryPolicy {
+    private final long delayMillis;
+    private final long maxDelayMillis;
+    private final int maxRetries;
+    @Nullable private final Duration maxDuration;
+
+    /**
+     * Create a new {@link ExponentialBackoff}
+     *
+     * @param delay the delay before the first retry
+     * @param maxDelay the max delay between retries
+     * @param maxRetries the max number of retries
+     * @param maxDuration the max total duration of all attempts, null means unbounded
+     */
+    public ExponentialBackoff(
+            Duration delay, Duration maxDelay, int maxRetries, @Nullable Duration maxDuration) {
+        this.delayMillis = Math.max(1, delay.toMillis());
+        this.maxDelayMillis = Math.max(this.delayMillis, maxDelay.toMillis());
+        this.maxRetries = maxRetries;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public Optional<Duration> nextDelay(int attempts, Duration elapsed, Throwable cause) {
+        if (attempts > this.maxRetries) {
+            return Optional.empty();
+        }
+        int shift = Math.min(attempts - 1, Long.numberOfLeadingZeros(this.delayMillis) - 1);
+        long backoff = Math.min(this.maxDelayMillis, this.delayMillis << shift);
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        Duration delay = Duration.ofMillis(jittered);
+        if (this.maxDuration != null && elapsed.plus(delay).compareTo(this.maxDuration) > 0) {
+            return Optional.empty();
+        }
+        return Optional.of(delay);
+    }
+}
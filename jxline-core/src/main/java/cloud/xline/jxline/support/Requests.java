@@ -1,6 +1,7 @@
 package cloud.xline.jxline.support;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import com.xline.protobuf.*;
 import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.options.*;
@@ -22,15 +23,17 @@ public final class Requests {
      */
     public static Command mapPutRequest(
             ByteSequence key, ByteSequence value, PutOption option, ByteSequence namespace) {
+        ByteString prefixedKey = prefixNamespace(key, namespace);
         PutRequest req =
                 PutRequest.newBuilder()
-                        .setKey(Util.prefixNamespace(key, namespace))
-                        .setValue(ByteString.copyFrom(value.getBytes()))
+                        .setKey(prefixedKey)
+                        .setValue(value.getByteString())
                         .setLease(option.getLeaseId())
                         .setPrevKv(option.getPrevKV())
                         .build();
         return Command.newBuilder()
-                .addKeys(KeyRange.newBuilder().setKey(ByteString.copyFrom(key.getBytes())).build())
+                // the conflicts are detected on the keys actually stored, i.e. with the namespace
+                .addKeys(KeyRange.newBuilder().setKey(prefixedKey).build())
                 .setRequest(
                         RequestWithToken.newBuilder().setPutRequest(req).build()) // TODO: add token
                 .build();
@@ -46,9 +49,10 @@ public final class Requests {
      */
     public static Command mapRangeRequest(
             ByteSequence key, GetOption option, ByteSequence namespace) {
+        ByteString prefixedKey = prefixNamespace(key, namespace);
         RangeRequest.Builder builder =
                 RangeRequest.newBuilder()
-                        .setKey(Util.prefixNamespace(key, namespace))
+                        .setKey(prefixedKey)
                         .setCountOnly(option.isCountOnly())
                         .setLimit(option.getLimit())
                         .setRevision(option.getRevision())
@@ -64,7 +68,7 @@ public final class Requests {
         defineRangeRequestEnd(
                 key, option.getEndKey(), option.isPrefix(), namespace, builder::setRangeEnd);
         return Command.newBuilder()
-                .addKeys(KeyRange.newBuilder().setKey(ByteString.copyFrom(key.getBytes())).build())
+                .addKeys(KeyRange.newBuilder().setKey(prefixedKey).build())
                 .setRequest(
                         RequestWithToken.newBuilder()
                                 .setRangeRequest(builder.build())
@@ -82,16 +86,17 @@ public final class Requests {
      */
     public static Command mapDeleteRequest(
             ByteSequence key, DeleteOption option, ByteSequence namespace) {
+        ByteString prefixedKey = prefixNamespace(key, namespace);
         DeleteRangeRequest.Builder builder =
                 DeleteRangeRequest.newBuilder()
-                        .setKey(Util.prefixNamespace(key, namespace))
+                        .setKey(prefixedKey)
                         .setPrevKv(option.isPrevKV());
 
         defineRangeRequestEnd(
                 key, option.getEndKey(), option.isPrefix(), namespace, builder::setRangeEnd);
 
         return Command.newBuilder()
-                .addKeys(KeyRange.newBuilder().setKey(ByteString.copyFrom(key.getBytes())).build())
+                .addKeys(KeyRange.newBuilder().setKey(prefixedKey).build())
                 .setRequest(
                         RequestWithToken.newBuilder()
                                 .setDeleteRangeRequest(builder.build())
@@ -159,15 +164,56 @@ public final class Requests {
 
         if (endKeyOptional.isPresent()) {
             setRangeEndConsumer.accept(
-                    Util.prefixNamespaceToRangeEnd(
-                            ByteString.copyFrom(endKeyOptional.get().getBytes()), namespace));
+                    prefixNamespaceToRangeEnd(endKeyOptional.get().getByteString(), namespace));
         } else {
             if (hasPrefix) {
                 ByteSequence endKey = OptionsUtil.prefixEndOf(key);
                 setRangeEndConsumer.accept(
-                        Util.prefixNamespaceToRangeEnd(
-                                ByteString.copyFrom(endKey.getBytes()), namespace));
+                        prefixNamespaceToRangeEnd(endKey.getByteString(), namespace));
             }
         }
     }
+
+    /**
+     * Prefix the key with the namespace. The {@link ByteString} backing the key is shared rather
+     * than copied, and a prefixed key is built in a single buffer, so that it stays flat instead
+     * of becoming a rope.
+     *
+     * @param key the key
+     * @param namespace the namespace
+     * @return the prefixed key
+     */
+    static ByteString prefixNamespace(ByteSequence key, ByteSequence namespace) {
+        return prefix(namespace.getByteString(), key.getByteString());
+    }
+
+    /**
+     * Prefix the range end with the namespace, see {@link
+     * Util#prefixNamespaceToRangeEnd(ByteString, ByteSequence)}.
+     *
+     * @param end the range end
+     * @param namespace the namespace
+     * @return the prefixed range end
+     */
+    static ByteString prefixNamespaceToRangeEnd(ByteString end, ByteSequence namespace) {
+        if (namespace.isEmpty()) {
+            return end;
+        }
+        if (end.size() == 1 && end.byteAt(0) == 0) {
+            // '\0' means all the keys from the key, which ends at the end of the namespace
+            return Util.prefixNamespaceToRangeEnd(end, namespace);
+        }
+        return prefix(namespace.getByteString(), end);
+    }
+
+    private static ByteString prefix(ByteString prefix, ByteString bytes) {
+        if (prefix.isEmpty()) {
+            return bytes;
+        }
+        byte[] buf = new byte[prefix.size() + bytes.size()];
+        prefix.copyTo(buf, 0);
+        bytes.copyTo(buf, prefix.size());
+        // the buffer never escapes, so it is safe to wrap it without a copy
+        return UnsafeByteOperations.unsafeWrap(buf);
+    }
 }
@@ -0,0 +1,25 @@
+package cloud.xline.jxline.impl;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The factory of the virtual-thread executor. This is the variant for Java 21, loaded from {@code
+ * META-INF/versions/21} of the multi-release jar.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * Create an executor running each task in a new virtual thread
+     *
+     * @return the executor
+     */
+    @Nullable
+    static ExecutorService newThreadPerTaskExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("jxline-virtual-", 0).factory());
+    }
+}
@@ -0,0 +1,91 @@
+package cloud.xline.jxline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ReplicaSelectorTest {
+
+    @Test
+    void testLowestLatency() {
+        Replica slow = replica(1, 10, 0);
+        Replica fast = replica(2, 2, 0);
+        Replica unmeasured = replica(3, 0, 0);
+        assertThat(ReplicaSelector.lowestLatency().select(List.of(slow, fast, unmeasured)))
+                .containsExactly(unmeasured, fast, slow);
+    }
+
+    @Test
+    void testLowestLatencyAccountsForErrors() {
+        // 4ms with a call in two to be resent is slower than 3ms without errors
+        Replica flaky = replica(1, 4, 0.5, 0);
+        Replica steady = replica(2, 3, 0, 0);
+        Replica down = replica(3, 1, 1, 0);
+        assertThat(ReplicaSelector.lowestLatency().select(List.of(flaky, down, steady)))
+                .containsExactly(steady, flaky, down);
+    }
+
+    @Test
+    void testFewestInFlight() {
+        Replica busy = replica(1, 1, 5);
+        Replica idleSlow = replica(2, 10, 0);
+        Replica idleFast = replica(3, 2, 0);
+        assertThat(ReplicaSelector.fewestInFlight().select(List.of(busy, idleSlow, idleFast)))
+                .containsExactly(idleFast, idleSlow, busy);
+    }
+
+    @Test
+    void testPreferring() {
+        Replica remote = replica(1, 1, 0);
+        Replica localSlow = replica(2, 10, 0);
+        Replica localFast = replica(3, 5, 0);
+        ReplicaSelector selector =
+                ReplicaSelector.preferring(
+                        r -> r.name().equals("node2") || r.name().equals("node3"),
+                        ReplicaSelector.lowestLatency());
+        // the local replicas go first even if slower, the remote one is kept as a fallback
+        assertThat(selector.select(List.of(remote, localSlow, localFast)))
+                .containsExactly(localFast, localSlow, remote);
+    }
+
+    private static Replica replica(long id, double latency, int inFlight) {
+        return replica(id, latency, 0, inFlight);
+    }
+
+    private static Replica replica(long id, double latency, double errorRate, int inFlight) {
+        return new Replica() {
+            @Override
+            public long id() {
+                return id;
+            }
+
+            @Override
+            public String name() {
+                return "node" + id;
+            }
+
+            @Override
+            public Set<String> addrs() {
+                return Set.of("127.0.0.1:" + (2379 + id));
+            }
+
+            @Override
+            public double latency() {
+                return latency;
+            }
+
+            @Override
+            public double errorRate() {
+                return errorRate;
+            }
+
+            @Override
+            public int inFlight() {
+                return inFlight;
+            }
+        };
+    }
+}
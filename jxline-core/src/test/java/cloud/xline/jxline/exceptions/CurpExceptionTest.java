@@ -0,0 +1,44 @@
+package cloud.xline.jxline.exceptions;
+
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class CurpExceptionTest {
+
+    @Test
+    void testTransportFailuresAreRetried() {
+        for (Status status :
+                new Status[] {Status.UNAVAILABLE, Status.CANCELLED, Status.DEADLINE_EXCEEDED}) {
+            RuntimeException e = CurpException.fromCallFailure(status.asRuntimeException());
+            assertThat(e).isInstanceOf(CurpException.class);
+            assertThat(((CurpException) e).getError().hasRpcTransport()).isTrue();
+            assertThat(((CurpException) e).shouldRetry()).isTrue();
+        }
+    }
+
+    @Test
+    void testOtherStatusesAreSurfaced() {
+        for (Status status :
+                new Status[] {
+                    Status.PERMISSION_DENIED,
+                    Status.UNAUTHENTICATED,
+                    Status.INVALID_ARGUMENT,
+                    Status.RESOURCE_EXHAUSTED,
+                    Status.UNKNOWN
+                }) {
+            RuntimeException e = CurpException.fromCallFailure(status.asRuntimeException());
+            assertThat(e).isInstanceOf(XlineException.class);
+            assertThat(Status.fromThrowable(e).getCode()).isEqualTo(status.getCode());
+        }
+    }
+
+    @Test
+    void testToCurpExceptionKeepsMappingEveryStatus() {
+        for (Status status : new Status[] {Status.PERMISSION_DENIED, Status.UNKNOWN}) {
+            CurpException e = CurpException.toCurpException(status.asRuntimeException());
+            assertThat(e.getError().hasRpcTransport()).isTrue();
+        }
+    }
+}
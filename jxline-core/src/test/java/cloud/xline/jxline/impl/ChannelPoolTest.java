@@ -0,0 +1,72 @@
+package cloud.xline.jxline.impl;
+
+import com.xline.protobuf.RangeRequest;
+import com.xline.protobuf.RangeResponse;
+import io.vertx.core.Future;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ChannelPoolTest {
+    private final List<FakeChannel> connected = new ArrayList<>();
+
+    @Test
+    void testGrowsOnSaturation() {
+        ChannelPool pool = this.pool(1, 2);
+        this.saturate(pool);
+        assertThat(pool.size()).isEqualTo(1);
+
+        Future<RangeResponse> overflow = pool.kv().range(RangeRequest.getDefaultInstance());
+        assertThat(overflow.succeeded()).isTrue();
+        assertThat(pool.size()).isEqualTo(2);
+        assertThat(this.connected).hasSize(2);
+    }
+
+    @Test
+    void testGrowsUpToMaxSize() {
+        ChannelPool pool = this.pool(1, 1);
+        this.saturate(pool);
+        pool.kv().range(RangeRequest.getDefaultInstance());
+        assertThat(pool.size()).isEqualTo(1);
+        assertThat(this.connected).hasSize(1);
+    }
+
+    @Test
+    void testShrinkKeepsTheInitialChannels() {
+        ChannelPool pool = this.pool(1, 2);
+        this.saturate(pool);
+        pool.kv().range(RangeRequest.getDefaultInstance());
+
+        assertThat(pool.shrink(Long.MAX_VALUE)).isEmpty();
+        assertThat(pool.shrink(0)).containsExactly(this.connected.get(1));
+        assertThat(pool.size()).isEqualTo(1);
+        assertThat(pool.shrink(0)).isEmpty();
+    }
+
+    /**
+     * Create a pool whose first channel never answers, and whose added channels answer at once
+     */
+    private ChannelPool pool(int size, int maxSize) {
+        return new ChannelPool(
+                init -> {
+                    FakeChannel channel =
+                            new FakeChannel(
+                                    this.connected.isEmpty()
+                                            ? request -> null
+                                            : request -> RangeResponse.getDefaultInstance());
+                    this.connected.add(channel);
+                    return init.apply(channel);
+                },
+                size,
+                maxSize);
+    }
+
+    private void saturate(ChannelPool pool) {
+        for (int i = 0; i < ChannelPool.SATURATION; i++) {
+            pool.kv().range(RangeRequest.getDefaultInstance());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cloud.xline.jxline.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(now::get);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD - 1; i++) {
+            breaker.onFailure();
+        }
+        breaker.onSuccess();
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD - 1; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void testSingleProbeAfterOpenInterval() {
+        open();
+        now.addAndGet(CircuitBreaker.OPEN_INTERVAL - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        now.incrementAndGet();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        // only one probe at a time
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testFailedProbeDoublesInterval() {
+        open();
+        long interval = CircuitBreaker.OPEN_INTERVAL;
+        while (interval < CircuitBreaker.MAX_OPEN_INTERVAL) {
+            now.addAndGet(interval);
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+            assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+            interval = Math.min(interval * 2, CircuitBreaker.MAX_OPEN_INTERVAL);
+            now.addAndGet(interval - 1);
+            assertThat(breaker.tryAcquire()).isFalse();
+            now.addAndGet(-(interval - 1));
+        }
+        // capped at the max interval
+        now.addAndGet(CircuitBreaker.MAX_OPEN_INTERVAL);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        now.addAndGet(CircuitBreaker.MAX_OPEN_INTERVAL);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testCancelledProbeLetsNextCallerProbe() {
+        open();
+        now.addAndGet(CircuitBreaker.OPEN_INTERVAL);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onCancel();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
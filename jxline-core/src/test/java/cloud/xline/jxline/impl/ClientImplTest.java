@@ -0,0 +1,38 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Client;
+import cloud.xline.jxline.XlineRuntime;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ClientImplTest {
+    private static final String TARGET = "ip:///localhost:2379";
+
+    @Test
+    void testCloseKeepsTheSharedRuntime() {
+        try (XlineRuntime runtime = XlineRuntime.create()) {
+            new ClientImpl(Client.builder().target(TARGET).runtime(runtime)).close();
+            new ClientImpl(Client.builder().target(TARGET).runtime(runtime)).close();
+            assertThat(runtime.vertx().nettyEventLoopGroup().isShuttingDown()).isFalse();
+        }
+    }
+
+    @Test
+    void testCloseReleasesTheOwnedRuntime() throws InterruptedException {
+        ClientConnectionManager manager =
+                new ClientConnectionManager(Client.builder().target(TARGET));
+        Vertx vertx = manager.vertx();
+        manager.close();
+
+        // the event loops are shut down in the background
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!vertx.nettyEventLoopGroup().isShuttingDown() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(vertx.nettyEventLoopGroup().isShuttingDown()).isTrue();
+    }
+}
@@ -0,0 +1,52 @@
+package cloud.xline.jxline.impl;
+
+import com.curp.protobuf.FetchClusterResponse;
+import com.curp.protobuf.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ClusterSnapshotTest {
+    @TempDir Path dir;
+
+    @Test
+    void testSaveAndLoad() {
+        ClusterSnapshot snapshot = new ClusterSnapshot(this.dir.resolve("cluster"), Runnable::run);
+        snapshot.save(state(1));
+        snapshot.save(state(2));
+
+        ClusterSnapshot restarted = new ClusterSnapshot(this.dir.resolve("cluster"), Runnable::run);
+        assertThat(restarted.load().result()).isEqualTo(state(2));
+        assertThat(this.dir.resolve("cluster.tmp")).doesNotExist();
+    }
+
+    @Test
+    void testLoadWithoutSnapshot() {
+        ClusterSnapshot snapshot = new ClusterSnapshot(this.dir.resolve("cluster"), Runnable::run);
+        assertThat(snapshot.load().succeeded()).isTrue();
+        assertThat(snapshot.load().result()).isNull();
+    }
+
+    @Test
+    void testLoadCorruptedSnapshot() throws IOException {
+        Files.write(this.dir.resolve("cluster"), new byte[] {(byte) 0xff});
+        ClusterSnapshot snapshot = new ClusterSnapshot(this.dir.resolve("cluster"), Runnable::run);
+        assertThat(snapshot.load().succeeded()).isTrue();
+        assertThat(snapshot.load().result()).isNull();
+    }
+
+    private static FetchClusterResponse state(long version) {
+        return FetchClusterResponse.newBuilder()
+                .setLeaderId(1)
+                .setTerm(1)
+                .setClusterVersion(version)
+                .addMembers(
+                        Member.newBuilder().setId(1).setName("node1").addAddrs("127.0.0.1:2379"))
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package cloud.xline.jxline.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ClusterViewTest {
+
+    @Test
+    void testQuorums() {
+        assertThat(ClusterView.quorum(1)).isEqualTo(1);
+        assertThat(ClusterView.superQuorum(1)).isEqualTo(1);
+        assertThat(ClusterView.quorum(3)).isEqualTo(2);
+        assertThat(ClusterView.superQuorum(3)).isEqualTo(3);
+        assertThat(ClusterView.quorum(5)).isEqualTo(3);
+        assertThat(ClusterView.superQuorum(5)).isEqualTo(4);
+        assertThat(ClusterView.quorum(7)).isEqualTo(4);
+        assertThat(ClusterView.superQuorum(7)).isEqualTo(6);
+    }
+
+    @Test
+    void testWithLeaderKeepsMembers() {
+        Map<Long, MemberChannels.MemberChannel> members = Map.of(1L, member(1), 2L, member(2));
+        ClusterView view = new ClusterView(1, 1, 3, members);
+        assertThat(view.leader()).isSameAs(members.get(1L));
+
+        ClusterView next = view.withLeader(2, 2);
+        assertThat(next.leader()).isSameAs(members.get(2L));
+        assertThat(next.term()).isEqualTo(2);
+        assertThat(next.clusterVersion()).isEqualTo(3);
+        assertThat(next.members()).isEqualTo(members);
+        // the views are immutable
+        assertThat(view.leaderId()).isEqualTo(1);
+        assertThat(view.term()).isEqualTo(1);
+    }
+
+    @Test
+    void testWithMembersKeepsLeader() {
+        ClusterView view = new ClusterView(1, 1, 3, Map.of(1L, member(1), 2L, member(2)));
+        Map<Long, MemberChannels.MemberChannel> members =
+                Map.of(1L, member(1), 2L, member(2), 3L, member(3));
+
+        ClusterView next = view.withMembers(4, members);
+        assertThat(next.leaderId()).isEqualTo(1);
+        assertThat(next.leader()).isSameAs(members.get(1L));
+        assertThat(next.clusterVersion()).isEqualTo(4);
+        assertThat(next.replicas()).hasSize(3);
+        assertThat(next.superQuorum()).isEqualTo(3);
+
+        // the leader is unknown once it is not a member any more
+        assertThat(view.withMembers(5, Map.of(2L, member(2))).leader()).isNull();
+    }
+
+    private static MemberChannels.MemberChannel member(long id) {
+        return new MemberChannels.MemberChannel(id, "node" + id, Set.of(), null);
+    }
+}
@@ -0,0 +1,35 @@
+package cloud.xline.jxline.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DefaultExecutorsTest {
+    /** Set by the testJava21 task, which puts the multi-release classes on the classpath */
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("jxline.test.virtualThreads");
+
+    @Test
+    void testPlatformThreads() throws Exception {
+        Thread thread = runOn(DefaultExecutors.create(false));
+        assertThat(thread.getName()).startsWith("jxline-");
+        assertThat(thread.isDaemon()).isTrue();
+    }
+
+    @Test
+    void testDefaultThreads() throws Exception {
+        String prefix = VIRTUAL_THREADS ? "jxline-virtual-" : "jxline-pool-";
+        assertThat(runOn(DefaultExecutors.create(null)).getName()).startsWith(prefix);
+        assertThat(runOn(DefaultExecutors.create(true)).getName()).startsWith(prefix);
+    }
+
+    private static Thread runOn(ExecutorService executor) throws Exception {
+        try {
+            return executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
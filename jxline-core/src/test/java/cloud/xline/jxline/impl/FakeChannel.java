@@ -0,0 +1,119 @@
+package cloud.xline.jxline.impl;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A channel answering each unary call on the calling thread with the response of the responder.
+ * The call fails if the responder throws a {@link StatusRuntimeException}, and is left in flight
+ * if it returns null.
+ */
+final class FakeChannel extends ManagedChannel {
+    private final Function<Object, Object> responder;
+    private volatile boolean shutdown;
+
+    FakeChannel(Function<Object, Object> responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Create a member with a single channel answered by the responder
+     *
+     * @param id the member id
+     * @param responder the responder of the calls to the member
+     * @return the member
+     */
+    static MemberChannels.MemberChannel member(long id, Function<Object, Object> responder) {
+        FakeChannel channel = new FakeChannel(responder);
+        return new MemberChannels.MemberChannel(
+                id, "node" + id, Set.of(), new ChannelPool(init -> init.apply(channel), 1, 1));
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        return new ClientCall<>() {
+            private Listener<RespT> listener;
+            @Nullable private ReqT request;
+
+            @Override
+            public void start(Listener<RespT> listener, Metadata headers) {
+                this.listener = listener;
+            }
+
+            @Override
+            public void request(int numMessages) {}
+
+            @Override
+            public void cancel(@Nullable String message, @Nullable Throwable cause) {}
+
+            @Override
+            public void halfClose() {
+                if (shutdown) {
+                    this.listener.onClose(Status.UNAVAILABLE, new Metadata());
+                    return;
+                }
+                Object response;
+                try {
+                    response = responder.apply(this.request);
+                } catch (StatusRuntimeException e) {
+                    this.listener.onClose(e.getStatus(), new Metadata());
+                    return;
+                }
+                if (response == null) {
+                    return;
+                }
+                @SuppressWarnings("unchecked")
+                RespT message = (RespT) response;
+                this.listener.onMessage(message);
+                this.listener.onClose(Status.OK, new Metadata());
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                this.request = message;
+            }
+        };
+    }
+
+    @Override
+    public String authority() {
+        return "fake";
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        this.shutdown = true;
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.shutdown;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        return this.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return this.shutdown;
+    }
+}
@@ -0,0 +1,75 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.ProposeResult;
+import cloud.xline.jxline.ProtocolClient;
+import cloud.xline.jxline.ReadConsistency;
+import cloud.xline.jxline.Replica;
+import com.xline.protobuf.Command;
+import com.xline.protobuf.CommandResponse;
+import com.xline.protobuf.PutResponse;
+import com.xline.protobuf.RangeResponse;
+import com.xline.protobuf.ResponseHeader;
+import com.xline.protobuf.SyncResponse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Completes the synced result of the last proposal on demand, and records the commands and the
+ * reads.
+ */
+final class FakeProtocolClient implements ProtocolClient {
+    private CompletableFuture<SyncResponse> synced;
+    Command lastCommand;
+    long readRevision = -1;
+
+    void sync(long revision) {
+        this.synced.complete(SyncResponse.newBuilder().setRevision(revision).build());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> propose(
+            Command cmd,
+            boolean useFastPath,
+            BiFunction<CommandResponse, SyncResponse, T> convert) {
+        return this.proposeStaged(cmd, convert).synced();
+    }
+
+    @Override
+    public <T> ProposeResult<T> proposeStaged(
+            Command cmd, BiFunction<CommandResponse, SyncResponse, T> convert) {
+        this.lastCommand = cmd;
+        CommandResponse er =
+                CommandResponse.newBuilder()
+                        .setPutResponse(
+                                PutResponse.newBuilder()
+                                        .setHeader(ResponseHeader.getDefaultInstance()))
+                        .build();
+        this.synced = new CompletableFuture<>();
+        return new ProposeResult<>(
+                CompletableFuture.completedFuture(convert.apply(er, null)),
+                this.synced.thenApply(asr -> convert.apply(er, asr)));
+    }
+
+    @Override
+    public CompletableFuture<RangeResponse> read(Command cmd, ReadConsistency consistency) {
+        return this.readAtLeast(cmd, 0);
+    }
+
+    @Override
+    public CompletableFuture<RangeResponse> readAtLeast(Command cmd, long revision) {
+        this.lastCommand = cmd;
+        this.readRevision = revision;
+        return CompletableFuture.completedFuture(
+                RangeResponse.newBuilder()
+                        .setHeader(ResponseHeader.newBuilder().setRevision(revision))
+                        .build());
+    }
+
+    @Override
+    public List<Replica> routingTable() {
+        return Collections.emptyList();
+    }
+}
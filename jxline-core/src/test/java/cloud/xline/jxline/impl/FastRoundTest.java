@@ -0,0 +1,103 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.exceptions.CurpException;
+import cloud.xline.jxline.exceptions.XlineException;
+import com.curp.protobuf.CurpError;
+import com.curp.protobuf.Redirect;
+import com.google.protobuf.Empty;
+import com.xline.protobuf.CommandResponse;
+import io.grpc.Status;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class FastRoundTest {
+    private static final CommandResponse ER = CommandResponse.getDefaultInstance();
+
+    @Test
+    void testSucceedsWithSuperQuorum() {
+        ProtocolClientImpl.FastRound round = new ProtocolClientImpl.FastRound(5, 4);
+        round.onResponse(Future.succeededFuture(ER));
+        round.onResponse(Future.succeededFuture());
+        round.onResponse(Future.succeededFuture());
+        assertThat(round.future().isComplete()).isFalse();
+
+        round.onResponse(Future.succeededFuture());
+        assertThat(round.future().succeeded()).isTrue();
+        assertThat(round.future().result()).isSameAs(ER);
+    }
+
+    @Test
+    void testFailsOnceSuperQuorumIsUnreachable() {
+        ProtocolClientImpl.FastRound round = new ProtocolClientImpl.FastRound(5, 4);
+        round.onResponse(Future.succeededFuture(ER));
+        round.onResponse(Future.failedFuture(transport()));
+        // 1 ok + 3 pending could still reach the super quorum
+        assertThat(round.future().isComplete()).isFalse();
+
+        round.onResponse(Future.failedFuture(transport()));
+        // 1 ok + 2 pending could not, fail without waiting for the others
+        assertThat(round.future().failed()).isTrue();
+        assertThat(((CurpException) round.future().cause()).getError().hasRpcTransport())
+                .isTrue();
+    }
+
+    @Test
+    void testAbortsOnRedirect() {
+        ProtocolClientImpl.FastRound round = new ProtocolClientImpl.FastRound(5, 4);
+        CurpException redirect =
+                new CurpException(
+                        CurpError.newBuilder().setRedirect(Redirect.getDefaultInstance()).build());
+        round.onResponse(Future.failedFuture(redirect));
+        assertThat(round.future().cause()).isSameAs(redirect);
+    }
+
+    @Test
+    void testNonCurpErrorIsFailedVote() {
+        ProtocolClientImpl.FastRound round = new ProtocolClientImpl.FastRound(5, 4);
+        round.onResponse(Future.succeededFuture(ER));
+        round.onResponse(Future.failedFuture(Status.INTERNAL.asRuntimeException()));
+        // one failed vote, the super quorum is still reachable
+        assertThat(round.future().isComplete()).isFalse();
+
+        round.onResponse(Future.failedFuture(Status.RESOURCE_EXHAUSTED.asRuntimeException()));
+        assertThat(((CurpException) round.future().cause()).getError().hasRpcTransport())
+                .isTrue();
+    }
+
+    @Test
+    void testSlowRoundDecidesOnNonCurpError() {
+        Promise<String> slowRound = Promise.promise();
+        Future<String> result =
+                ProtocolClientImpl.race(
+                        Future.failedFuture(Status.UNKNOWN.asRuntimeException()),
+                        slowRound.future());
+        assertThat(result.isComplete()).isFalse();
+        slowRound.complete("synced");
+        assertThat(result.result()).isEqualTo("synced");
+
+        XlineException failure =
+                XlineException.toXlineException(Status.INTERNAL.asRuntimeException());
+        result =
+                ProtocolClientImpl.race(
+                        Promise.<String>promise().future(), Future.failedFuture(failure));
+        assertThat(result.cause()).isSameAs(failure);
+    }
+
+    @Test
+    void testFailsWithoutLeaderResult() {
+        ProtocolClientImpl.FastRound round = new ProtocolClientImpl.FastRound(3, 3);
+        for (int i = 0; i < 3; i++) {
+            round.onResponse(Future.succeededFuture());
+        }
+        assertThat(((CurpException) round.future().cause()).getError().hasWrongClusterVersion())
+                .isTrue();
+    }
+
+    private static CurpException transport() {
+        return new CurpException(
+                CurpError.newBuilder().setRpcTransport(Empty.getDefaultInstance()).build());
+    }
+}
@@ -0,0 +1,133 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Client;
+import cloud.xline.jxline.ClientBuilder;
+import cloud.xline.jxline.exceptions.XlineException;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ImplTest {
+    private static final String TARGET = "ip:///localhost:2379";
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private ClientConnectionManager manager;
+
+    @AfterEach
+    void tearDown() {
+        this.scheduler.shutdownNow();
+        if (this.manager != null) {
+            this.manager.close();
+        }
+    }
+
+    @Test
+    void testBoundedFailsOnceTheDeadlinePasses() {
+        Context.CancellableContext context =
+                Context.current().withDeadlineAfter(10, TimeUnit.MILLISECONDS, this.scheduler);
+        // the call never completes on its own
+        Future<String> call = Impl.bounded(Promise.<String>promise().future(), context);
+
+        CompletableFuture<String> future = call.toCompletionStage().toCompletableFuture();
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(XlineException.class);
+        assertThat(Status.fromThrowable(call.cause()).getCode())
+                .isEqualTo(Status.Code.DEADLINE_EXCEEDED);
+    }
+
+    @Test
+    void testBoundedKeepsTheResult() {
+        Context.CancellableContext context =
+                Context.current().withDeadlineAfter(1, TimeUnit.HOURS, this.scheduler);
+        assertThat(Impl.bounded(Future.succeededFuture("ok"), context).result()).isEqualTo("ok");
+
+        // an explicit cancellation is not a deadline
+        Future<String> cancelled = Impl.bounded(Promise.<String>promise().future(), context);
+        context.cancel(null);
+        assertThat(cancelled.isComplete()).isFalse();
+    }
+
+    @Test
+    void testCallContextUsesTheDefaultDeadline() {
+        Impl impl = this.impl(Duration.ofHours(1));
+        Context.CancellableContext context = impl.newCallContext();
+        assertThat(context.getDeadline()).isNotNull();
+        assertThat(context.getDeadline().timeRemaining(TimeUnit.MINUTES)).isGreaterThan(30);
+        context.cancel(null);
+    }
+
+    @Test
+    void testCallContextKeepsTheCallerDeadline() {
+        Impl impl = this.impl(Duration.ofHours(1));
+        Context.CancellableContext caller =
+                Context.current().withDeadlineAfter(1, TimeUnit.SECONDS, this.scheduler);
+        Context.CancellableContext context = Impl.inContext(caller, impl::newCallContext);
+        assertThat(context.getDeadline()).isSameAs(caller.getDeadline());
+        context.cancel(null);
+        caller.cancel(null);
+    }
+
+    @Test
+    void testCallContextWithoutDeadline() {
+        Context.CancellableContext context = this.impl(null).newCallContext();
+        assertThat(context.getDeadline()).isNull();
+        context.cancel(null);
+    }
+
+    @Test
+    void testCompletesOnTheExecutorByDefault() throws Exception {
+        Impl impl = this.impl(Client.builder().target(TARGET));
+        Promise<String> promise = Promise.promise();
+        CompletableFuture<Thread> completed =
+                impl.completable(promise.future()).thenApply(r -> Thread.currentThread());
+        promise.complete("ok");
+        assertThat(completed.get(5, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void testCompletesInlineWithADirectExecutor() {
+        Impl impl = this.impl(Client.builder().target(TARGET).completionExecutor(Runnable::run));
+        Promise<String> promise = Promise.promise();
+        CompletableFuture<Thread> completed =
+                impl.completable(promise.future()).thenApply(r -> Thread.currentThread());
+        promise.complete("ok");
+        assertThat(completed.getNow(null)).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void testCompletesInlineOnRejection() {
+        Impl impl =
+                this.impl(
+                        Client.builder()
+                                .target(TARGET)
+                                .completionExecutor(
+                                        task -> {
+                                            throw new RejectedExecutionException("shut down");
+                                        }));
+        RuntimeException failure = new RuntimeException("failed");
+        CompletableFuture<String> future = impl.completable(Future.failedFuture(failure));
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::join).hasCause(failure);
+    }
+
+    private Impl impl(Duration defaultDeadline) {
+        return this.impl(Client.builder().target(TARGET).defaultDeadline(defaultDeadline));
+    }
+
+    private Impl impl(ClientBuilder builder) {
+        this.manager = new ClientConnectionManager(builder);
+        return new Impl(this.manager) {};
+    }
+}
@@ -0,0 +1,67 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Client;
+import cloud.xline.jxline.ProposeResult;
+import cloud.xline.jxline.kv.PutResponse;
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.options.PutOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class KVImplTest {
+    private static final ByteSequence KEY = ByteSequence.from("key", StandardCharsets.UTF_8);
+
+    private ClientConnectionManager manager;
+    private FakeProtocolClient protocolClient;
+
+    @BeforeEach
+    void setUp() {
+        this.manager = new ClientConnectionManager(Client.builder().target("ip:///localhost:2379"));
+        this.protocolClient = new FakeProtocolClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.manager.close();
+    }
+
+    @Test
+    void testStagedPut() {
+        KVImpl kv = new KVImpl(this.protocolClient, this.manager);
+        ProposeResult<PutResponse> result = kv.putStaged(KEY, KEY, PutOption.DEFAULT);
+
+        // the speculative result has no after sync result, so no revision yet
+        assertThat(result.speculative()).isCompleted();
+        assertThat(result.speculative().join().getHeader().getRevision()).isZero();
+        assertThat(result.synced()).isNotDone();
+
+        this.protocolClient.sync(7);
+        assertThat(result.synced().join().getHeader().getRevision()).isEqualTo(7);
+    }
+
+    @Test
+    void testNamespaceView() {
+        ByteSequence namespace = ByteSequence.from("ns/", StandardCharsets.UTF_8);
+        KVImpl kv = new KVImpl(this.protocolClient, this.manager, namespace, null);
+        kv.put(KEY, KEY);
+        assertThat(this.protocolClient.lastCommand.getRequest().getPutRequest().getKey())
+                .isEqualTo(ByteSequence.from("ns/key", StandardCharsets.UTF_8).getByteString());
+
+        // the views share the protocol client, and keep their namespace with a deadline
+        KVImpl bounded = (KVImpl) kv.withDeadline(Duration.ofSeconds(5));
+        assertThat(bounded.namespace()).isEqualTo(namespace);
+        bounded.get(KEY).join();
+        assertThat(this.protocolClient.lastCommand.getRequest().getRangeRequest().getKey())
+                .isEqualTo(ByteSequence.from("ns/key", StandardCharsets.UTF_8).getByteString());
+
+        new KVImpl(this.protocolClient, this.manager).put(KEY, KEY);
+        assertThat(this.protocolClient.lastCommand.getRequest().getPutRequest().getKey())
+                .isEqualTo(KEY.getByteString());
+    }
+}
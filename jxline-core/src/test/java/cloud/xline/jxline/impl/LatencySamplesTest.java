@@ -0,0 +1,42 @@
+package cloud.xline.jxline.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LatencySamplesTest {
+    @Test
+    void testNoEstimationBelowMinSamples() {
+        LatencySamples samples = new LatencySamples();
+        for (int i = 1; i < LatencySamples.MIN_SAMPLES; i++) {
+            samples.record(i);
+        }
+        assertThat(samples.percentile(0.5)).isZero();
+
+        samples.record(LatencySamples.MIN_SAMPLES);
+        assertThat(samples.percentile(0.5)).isEqualTo(LatencySamples.MIN_SAMPLES / 2);
+    }
+
+    @Test
+    void testPercentile() {
+        LatencySamples samples = new LatencySamples();
+        for (int i = 100; i > 0; i--) {
+            samples.record(i);
+        }
+        assertThat(samples.percentile(0.01)).isEqualTo(1);
+        assertThat(samples.percentile(0.95)).isEqualTo(95);
+        assertThat(samples.percentile(1)).isEqualTo(100);
+    }
+
+    @Test
+    void testKeepsTheLatestSamples() {
+        LatencySamples samples = new LatencySamples();
+        for (int i = 0; i < LatencySamples.CAPACITY; i++) {
+            samples.record(1000);
+        }
+        for (int i = 0; i < LatencySamples.CAPACITY; i++) {
+            samples.record(1);
+        }
+        assertThat(samples.percentile(1)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,79 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Client;
+import com.curp.protobuf.Member;
+import com.xline.protobuf.RangeRequest;
+import io.grpc.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class MemberChannelsTest {
+    private ClientConnectionManager manager;
+    private MemberChannels channels;
+
+    @BeforeEach
+    void setUp() {
+        this.manager = new ClientConnectionManager(Client.builder().target("ip:///localhost:2379"));
+        this.channels = new MemberChannels(this.manager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.channels.close();
+        this.manager.close();
+    }
+
+    @Test
+    void testChannelsAreReusedAcrossUpdates() {
+        Map<Long, MemberChannels.MemberChannel> first =
+                this.channels.update(
+                        List.of(member(1, "127.0.0.1:2379"), member(2, "127.0.0.1:2380")));
+        Map<Long, MemberChannels.MemberChannel> second =
+                this.channels.update(
+                        List.of(
+                                member(1, "http://127.0.0.1:2379"),
+                                member(2, "127.0.0.1:2381"),
+                                member(3, "127.0.0.1:2382")));
+
+        assertThat(second).containsOnlyKeys(1L, 2L, 3L);
+        // the same address in another form is the same endpoint
+        assertThat(second.get(1L)).isSameAs(first.get(1L));
+        assertThat(second.get(2L)).isNotSameAs(first.get(2L));
+        assertThat(second.get(2L).addrs()).containsExactly("127.0.0.1:2381");
+    }
+
+    @Test
+    void testReplacedChannelsAreDrained() {
+        MemberChannels.MemberChannel removed =
+                this.channels
+                        .update(List.of(member(1, "127.0.0.1:2379"), member(2, "127.0.0.1:2380")))
+                        .get(2L);
+        MemberChannels.MemberChannel changed =
+                this.channels.update(List.of(member(2, "127.0.0.1:2381"))).get(2L);
+        assertThat(changed).isNotSameAs(removed);
+
+        // the drained channels take no new calls
+        assertThatThrownBy(
+                        () ->
+                                removed.kv()
+                                        .range(RangeRequest.getDefaultInstance())
+                                        .toCompletionStage()
+                                        .toCompletableFuture()
+                                        .get(5, TimeUnit.SECONDS))
+                .satisfies(
+                        e ->
+                                assertThat(Status.fromThrowable(e).getCode())
+                                        .isEqualTo(Status.Code.UNAVAILABLE));
+    }
+
+    private static Member member(long id, String addr) {
+        return Member.newBuilder().setId(id).setName("node" + id).addAddrs(addr).build();
+    }
+}
@@ -0,0 +1,53 @@
+package cloud.xline.jxline.impl;
+
+import io.grpc.Status;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class MemberStatsTest {
+    private final MemberStats stats = new MemberStats();
+
+    @Test
+    void testCountsCallsInFlight() {
+        Promise<String> call = Promise.promise();
+        this.stats.track(call::future);
+        assertThat(this.stats.inFlight()).isEqualTo(1);
+
+        call.complete("ok");
+        assertThat(this.stats.inFlight()).isZero();
+        assertThat(this.stats.latency()).isPositive();
+        assertThat(this.stats.errorRate()).isZero();
+    }
+
+    @Test
+    void testOnlyFaultsRaiseErrorRate() {
+        this.stats.track(() -> Future.failedFuture(Status.INTERNAL.asRuntimeException()));
+        assertThat(this.stats.errorRate()).isEqualTo(MemberStats.ALPHA);
+
+        // rejections by the member are not faults, the error rate decays
+        this.stats.track(() -> Future.failedFuture(Status.PERMISSION_DENIED.asRuntimeException()));
+        assertThat(this.stats.errorRate()).isLessThan(MemberStats.ALPHA);
+    }
+
+    @Test
+    void testCancelledCallsAreIgnored() {
+        this.stats.track(() -> Future.failedFuture(Status.CANCELLED.asRuntimeException()));
+        assertThat(this.stats.inFlight()).isZero();
+        assertThat(this.stats.latency()).isZero();
+        assertThat(this.stats.errorRate()).isZero();
+    }
+
+    @Test
+    void testSyncedLatencyIsKeptApart() {
+        for (int i = 0; i < LatencySamples.MIN_SAMPLES; i++) {
+            Promise<String> call = Promise.promise();
+            this.stats.trackSynced(call::future);
+            call.complete("synced");
+        }
+        assertThat(this.stats.latency()).isZero();
+        assertThat(this.stats.syncLatency().percentile(0.5)).isPositive();
+    }
+}
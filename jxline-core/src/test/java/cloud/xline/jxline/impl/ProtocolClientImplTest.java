@@ -0,0 +1,218 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Client;
+import cloud.xline.jxline.Replica;
+import cloud.xline.jxline.exceptions.CurpException;
+import cloud.xline.jxline.support.Requests;
+import com.curp.protobuf.FetchReadStateResponse;
+import com.curp.protobuf.ProposeId;
+import com.curp.protobuf.WaitSyncedRequest;
+import com.curp.protobuf.WaitSyncedResponse;
+import com.xline.protobuf.RangeRequest;
+import com.xline.protobuf.RangeResponse;
+import com.xline.protobuf.ResponseHeader;
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.options.DeleteOption;
+import io.etcd.jetcd.options.GetOption;
+import io.etcd.jetcd.options.PutOption;
+import io.grpc.Status;
+import io.vertx.core.Future;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ProtocolClientImplTest {
+    private static final ByteSequence KEY = ByteSequence.from("key", StandardCharsets.UTF_8);
+    private static final RangeRequest RANGE =
+            RangeRequest.newBuilder().setKey(KEY.getByteString()).setSerializable(true).build();
+
+    @Test
+    void testOnlyRangesAreReadOnly() {
+        GetOption countOnly = GetOption.newBuilder().withCountOnly(true).build();
+        assertThat(
+                        ProtocolClientImpl.isReadOnly(
+                                Requests.mapRangeRequest(KEY, countOnly, ByteSequence.EMPTY)))
+                .isTrue();
+        assertThat(
+                        ProtocolClientImpl.isReadOnly(
+                                Requests.mapPutRequest(
+                                        KEY, KEY, PutOption.DEFAULT, ByteSequence.EMPTY)))
+                .isFalse();
+        assertThat(
+                        ProtocolClientImpl.isReadOnly(
+                                Requests.mapDeleteRequest(
+                                        KEY, DeleteOption.DEFAULT, ByteSequence.EMPTY)))
+                .isFalse();
+    }
+
+    @Test
+    void testNoLeaderBeforeTheFirstClusterState() {
+        ClientConnectionManager manager =
+                new ClientConnectionManager(Client.builder().target("ip:///localhost:2379"));
+        ProtocolClientImpl client = new ProtocolClientImpl(manager);
+        try {
+            // fails like an unreachable member, so that the retry policy applies
+            Future<MemberChannels.MemberChannel> leader = client.leader();
+            assertThat(((CurpException) leader.cause()).getError().hasRpcTransport()).isTrue();
+        } finally {
+            client.close();
+            manager.close();
+        }
+    }
+
+    @Test
+    void testSerializableReadFallsBackToNextReplica() {
+        MemberChannels.MemberChannel down =
+                FakeChannel.member(
+                        1,
+                        request -> {
+                            throw Status.UNAVAILABLE.asRuntimeException();
+                        });
+        MemberChannels.MemberChannel up = FakeChannel.member(2, request -> rangeAt(5));
+        ClusterView view = new ClusterView(1, 1, 1, Map.of(1L, down, 2L, up));
+
+        Future<RangeResponse> read =
+                ProtocolClientImpl.rangeFirst(
+                        view, List.<Replica>of(down, up).iterator(), RANGE, 0);
+        assertThat(read.result().getHeader().getRevision()).isEqualTo(5);
+
+        // no fallback once the last replica is unavailable
+        read = ProtocolClientImpl.rangeFirst(view, List.<Replica>of(down).iterator(), RANGE, 0);
+        assertThat(((CurpException) read.cause()).getError().hasRpcTransport()).isTrue();
+    }
+
+    @Test
+    void testSerializableReadSkipsUnknownReplicas() {
+        MemberChannels.MemberChannel member = FakeChannel.member(1, request -> rangeAt(3));
+        ClusterView view = new ClusterView(1, 1, 1, Map.of(1L, member));
+        Replica removed = FakeChannel.member(2, request -> rangeAt(9));
+
+        Future<RangeResponse> read =
+                ProtocolClientImpl.rangeFirst(
+                        view, List.of(removed, member).iterator(), RANGE, 0);
+        assertThat(read.result().getHeader().getRevision()).isEqualTo(3);
+    }
+
+    @Test
+    void testSerializableReadSkipsBehindReplicas() {
+        MemberChannels.MemberChannel behind = FakeChannel.member(1, request -> rangeAt(3));
+        MemberChannels.MemberChannel upToDate = FakeChannel.member(2, request -> rangeAt(5));
+        ClusterView view = new ClusterView(1, 1, 1, Map.of(1L, behind, 2L, upToDate));
+
+        Future<RangeResponse> read =
+                ProtocolClientImpl.rangeFirst(
+                        view, List.<Replica>of(behind, upToDate).iterator(), RANGE, 5);
+        assertThat(read.result().getHeader().getRevision()).isEqualTo(5);
+
+        read =
+                ProtocolClientImpl.rangeFirst(
+                        view, List.<Replica>of(behind, upToDate).iterator(), RANGE, 6);
+        assertThat(read.cause()).isInstanceOf(ProtocolClientImpl.BehindException.class);
+    }
+
+    @Test
+    void testFallbackIfBehind() {
+        Future<RangeResponse> fallback = Future.succeededFuture(rangeAt(6));
+        assertThat(
+                        ProtocolClientImpl.fallbackIfBehind(
+                                        Future.failedFuture(
+                                                new ProtocolClientImpl.BehindException(6)),
+                                        () -> fallback)
+                                .result())
+                .isSameAs(fallback.result());
+
+        // the other failures are not retried on the fallback
+        RuntimeException failure = Status.UNAVAILABLE.asRuntimeException();
+        assertThat(
+                        ProtocolClientImpl.<RangeResponse>fallbackIfBehind(
+                                        Future.failedFuture(failure),
+                                        () -> {
+                                            throw new AssertionError("unexpected fallback");
+                                        })
+                                .cause())
+                .isSameAs(failure);
+    }
+
+    @Test
+    void testLinearizableReadWaitsForTheInflightCommands() {
+        List<Object> requests = new ArrayList<>();
+        MemberChannels.MemberChannel leader =
+                FakeChannel.member(
+                        1,
+                        request -> {
+                            requests.add(request);
+                            return request instanceof WaitSyncedRequest
+                                    ? WaitSyncedResponse.getDefaultInstance()
+                                    : rangeAt(5);
+                        });
+        ClusterView view = new ClusterView(1, 1, 1, Map.of(1L, leader));
+        FetchReadStateResponse readState =
+                FetchReadStateResponse.newBuilder()
+                        .setIds(
+                                FetchReadStateResponse.IdSet.newBuilder()
+                                        .addInflightIds(proposeId(1))
+                                        .addInflightIds(proposeId(2)))
+                        .build();
+
+        Future<RangeResponse> read = ProtocolClientImpl.readAfter(leader, view, readState, RANGE);
+        assertThat(read.result().getHeader().getRevision()).isEqualTo(5);
+        assertThat(requests).hasSize(3);
+        assertThat(((WaitSyncedRequest) requests.get(0)).getProposeId()).isEqualTo(proposeId(1));
+        assertThat(((WaitSyncedRequest) requests.get(1)).getProposeId()).isEqualTo(proposeId(2));
+        assertThat(((RangeRequest) requests.get(2)).getSerializable()).isTrue();
+    }
+
+    @Test
+    void testLinearizableReadLeavesTheCommitIndexToTheLeader() {
+        List<Object> requests = new ArrayList<>();
+        MemberChannels.MemberChannel leader =
+                FakeChannel.member(
+                        1,
+                        request -> {
+                            requests.add(request);
+                            return rangeAt(5);
+                        });
+        ClusterView view = new ClusterView(1, 1, 1, Map.of(1L, leader));
+        FetchReadStateResponse readState =
+                FetchReadStateResponse.newBuilder().setCommitIndex(3).build();
+
+        Future<RangeResponse> read = ProtocolClientImpl.readAfter(leader, view, readState, RANGE);
+        assertThat(read.result().getHeader().getRevision()).isEqualTo(5);
+        assertThat(requests).hasSize(1);
+        assertThat(((RangeRequest) requests.get(0)).getSerializable()).isFalse();
+    }
+
+    @Test
+    void testHedgeDelay() {
+        LatencySamples samples = new LatencySamples();
+        assertThat(ProtocolClientImpl.hedgeDelay(samples, 0.95)).isZero();
+
+        for (int i = 1; i <= 100; i++) {
+            samples.record(i);
+        }
+        assertThat(ProtocolClientImpl.hedgeDelay(samples, 0.95)).isEqualTo(95);
+        assertThat(ProtocolClientImpl.hedgeDelay(samples, null)).isZero();
+
+        // sub-millisecond budgets still leave the leader a chance to answer
+        LatencySamples fast = new LatencySamples();
+        for (int i = 0; i < LatencySamples.MIN_SAMPLES; i++) {
+            fast.record(0.2);
+        }
+        assertThat(ProtocolClientImpl.hedgeDelay(fast, 0.95)).isEqualTo(1);
+    }
+
+    private static ProposeId proposeId(long seqNum) {
+        return ProposeId.newBuilder().setClientId(1).setSeqNum(seqNum).build();
+    }
+
+    private static RangeResponse rangeAt(long revision) {
+        return RangeResponse.newBuilder()
+                .setHeader(ResponseHeader.newBuilder().setRevision(revision))
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package cloud.xline.jxline.impl;
+
+import cloud.xline.jxline.Client;
+import cloud.xline.jxline.Session;
+import cloud.xline.jxline.kv.GetResponse;
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.options.PutOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class SessionImplTest {
+    private static final ByteSequence KEY = ByteSequence.from("key", StandardCharsets.UTF_8);
+
+    private ClientConnectionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        this.manager = new ClientConnectionManager(Client.builder().target("ip:///localhost:2379"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.manager.close();
+    }
+
+    @Test
+    void testReadAfterSyncedWriteSeesItsRevision() {
+        FakeProtocolClient protocolClient = new FakeProtocolClient();
+        Session session =
+                new SessionImpl(
+                        protocolClient, new KVImpl(protocolClient, this.manager), this.manager);
+
+        CompletableFuture<GetResponse> read =
+                session.putStaged(KEY, KEY, PutOption.DEFAULT)
+                        .synced()
+                        .thenCompose(r -> session.get(KEY));
+        protocolClient.sync(5);
+
+        assertThat(read).isCompleted();
+        assertThat(protocolClient.readRevision).isEqualTo(5);
+        assertThat(session.revision()).isEqualTo(5);
+    }
+}
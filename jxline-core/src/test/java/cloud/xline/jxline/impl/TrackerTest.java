@@ -0,0 +1,36 @@
+package cloud.xline.jxline.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class TrackerTest {
+
+    @Test
+    void testSequential() {
+        Tracker tracker = new Tracker();
+        assertThat(tracker.nextSeqNum()).isEqualTo(0);
+        assertThat(tracker.nextSeqNum()).isEqualTo(1);
+        assertThat(tracker.nextSeqNum()).isEqualTo(2);
+    }
+
+    @Test
+    void testConcurrentAllocationIsUnique() throws InterruptedException {
+        Tracker tracker = new Tracker();
+        Set<Long> seqNums = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4000; i++) {
+            executor.execute(() -> seqNums.add(tracker.nextSeqNum()));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(seqNums).hasSize(4000);
+        assertThat(tracker.nextSeqNum()).isEqualTo(4000);
+    }
+}
@@ -0,0 +1,69 @@
+package cloud.xline.jxline.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ExponentialBackoffTest {
+    private static final Throwable CAUSE = new RuntimeException("failed");
+
+    @Test
+    void testJitteredExponentialDelay() {
+        ExponentialBackoff backoff =
+                new ExponentialBackoff(Duration.ofMillis(100), Duration.ofSeconds(10), 10, null);
+        for (int attempts = 1; attempts <= 5; attempts++) {
+            long expected = 100L << (attempts - 1);
+            for (int i = 0; i < 100; i++) {
+                assertThat(delayMillis(backoff, attempts, Duration.ZERO))
+                        .isBetween(expected / 2, expected);
+            }
+        }
+    }
+
+    @Test
+    void testDelayIsCapped() {
+        ExponentialBackoff backoff =
+                new ExponentialBackoff(Duration.ofMillis(100), Duration.ofMillis(300), 100, null);
+        for (int i = 0; i < 100; i++) {
+            assertThat(delayMillis(backoff, 4, Duration.ZERO)).isBetween(150L, 300L);
+        }
+        // no overflow however many attempts have been made
+        assertThat(delayMillis(backoff, 100, Duration.ZERO)).isBetween(150L, 300L);
+    }
+
+    @Test
+    void testMaxRetries() {
+        ExponentialBackoff backoff =
+                new ExponentialBackoff(Duration.ofMillis(10), Duration.ofMillis(100), 3, null);
+        assertThat(backoff.nextDelay(3, Duration.ZERO, CAUSE)).isPresent();
+        assertThat(backoff.nextDelay(4, Duration.ZERO, CAUSE)).isEmpty();
+    }
+
+    @Test
+    void testMaxDuration() {
+        ExponentialBackoff backoff =
+                new ExponentialBackoff(
+                        Duration.ofMillis(100),
+                        Duration.ofMillis(100),
+                        100,
+                        Duration.ofSeconds(1));
+        assertThat(backoff.nextDelay(1, Duration.ofMillis(800), CAUSE)).isPresent();
+        // the next attempt would start after the deadline
+        assertThat(backoff.nextDelay(1, Duration.ofMillis(960), CAUSE)).isEmpty();
+    }
+
+    @Test
+    void testZeroDelayIsClamped() {
+        ExponentialBackoff backoff = new ExponentialBackoff(Duration.ZERO, Duration.ZERO, 1, null);
+        assertThat(delayMillis(backoff, 1, Duration.ZERO)).isBetween(0L, 1L);
+    }
+
+    private static long delayMillis(ExponentialBackoff backoff, int attempts, Duration elapsed) {
+        Optional<Duration> delay = backoff.nextDelay(attempts, elapsed, CAUSE);
+        assertThat(delay).isPresent();
+        return delay.get().toMillis();
+    }
+}
@@ -0,0 +1,108 @@
+package cloud.xline.jxline.support;
+
+import com.sun.management.ThreadMXBean;
+import com.xline.protobuf.Command;
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.options.DeleteOption;
+import io.etcd.jetcd.options.GetOption;
+import io.etcd.jetcd.options.PutOption;
+import io.etcd.jetcd.support.Util;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class RequestsTest {
+    private static final ByteSequence NAMESPACE = bytes("namespace/");
+    private static final ByteSequence KEY = bytes("key");
+
+    @Test
+    void testPrefixNamespace() {
+        assertThat(Requests.prefixNamespace(KEY, NAMESPACE))
+                .isEqualTo(Util.prefixNamespace(KEY, NAMESPACE));
+        assertThat(Requests.prefixNamespace(KEY, ByteSequence.EMPTY))
+                .isSameAs(KEY.getByteString());
+
+        GetOption option = GetOption.newBuilder().isPrefix(true).build();
+        Command cmd = Requests.mapRangeRequest(KEY, option, NAMESPACE);
+        assertThat(cmd.getRequest().getRangeRequest().getRangeEnd())
+                .isEqualTo(bytes("namespace/kez").getByteString());
+
+        ByteSequence zero = ByteSequence.from(new byte[] {0});
+        assertThat(Requests.prefixNamespaceToRangeEnd(zero.getByteString(), NAMESPACE))
+                .isEqualTo(Util.prefixNamespaceToRangeEnd(zero.getByteString(), NAMESPACE));
+    }
+
+    @Test
+    void testConflictKeysAreNamespaced() {
+        ByteSequence other = bytes("other/");
+        Command put = Requests.mapPutRequest(KEY, KEY, PutOption.DEFAULT, NAMESPACE);
+        Command get = Requests.mapRangeRequest(KEY, GetOption.DEFAULT, NAMESPACE);
+        Command delete = Requests.mapDeleteRequest(KEY, DeleteOption.DEFAULT, NAMESPACE);
+        for (Command cmd : new Command[] {put, get, delete}) {
+            assertThat(cmd.getKeys(0).getKey()).isEqualTo(bytes("namespace/key").getByteString());
+        }
+        // the same key in two namespaces does not conflict
+        assertThat(Requests.mapPutRequest(KEY, KEY, PutOption.DEFAULT, other).getKeys(0))
+                .isNotEqualTo(put.getKeys(0));
+    }
+
+    @Test
+    void testConflictingPutsAcrossNamespaces() {
+        // both puts store "namespace/sub/key", so they must conflict
+        Command outer =
+                Requests.mapPutRequest(bytes("sub/key"), KEY, PutOption.DEFAULT, NAMESPACE);
+        Command inner =
+                Requests.mapPutRequest(KEY, KEY, PutOption.DEFAULT, bytes("namespace/sub/"));
+        assertThat(outer.getKeys(0)).isEqualTo(inner.getKeys(0));
+        assertThat(outer.getKeys(0).getKey())
+                .isEqualTo(outer.getRequest().getPutRequest().getKey());
+    }
+
+    @Test
+    void testPutDoesNotCopyValue() {
+        ByteSequence value = ByteSequence.from(new byte[1 << 20]);
+        Command cmd = Requests.mapPutRequest(KEY, value, PutOption.DEFAULT, NAMESPACE);
+        assertThat(cmd.getRequest().getPutRequest().getValue()).isSameAs(value.getByteString());
+    }
+
+    /** The bytes allocated to map a put of 64KB to 1MB values. */
+    @Test
+    void testPutAllocation() {
+        assumeTrue(
+                ManagementFactory.getThreadMXBean() instanceof ThreadMXBean,
+                "allocation measurement is not supported");
+        for (int size = 64 << 10; size <= 1 << 20; size <<= 2) {
+            ByteSequence value = ByteSequence.from(new byte[size]);
+            long allocated =
+                    allocatedBytesPerOp(
+                            () ->
+                                    Requests.mapPutRequest(
+                                            KEY, value, PutOption.DEFAULT, NAMESPACE));
+            // the value is no longer copied, only the small request objects are allocated
+            assertThat(allocated).isLessThan(size / 2);
+        }
+    }
+
+    private static long allocatedBytesPerOp(Supplier<Command> op) {
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 1000;
+        for (int i = 0; i < iterations; i++) {
+            op.get();
+        }
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            op.get();
+        }
+        return (bean.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+
+    private static ByteSequence bytes(String s) {
+        return ByteSequence.from(s, StandardCharsets.UTF_8);
+    }
+}